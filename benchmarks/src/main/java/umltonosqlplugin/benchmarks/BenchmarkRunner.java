@@ -0,0 +1,39 @@
+package umltonosqlplugin.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as a JMH JSON report, {@value #DEFAULT_REPORT} by default. Further
+ * arguments are passed to JMH, for example {@code -p classes=1000} to run a single model size. The GC profiler reports
+ * the bytes allocated per operation as {@code gc.alloc.rate.norm}.
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_REPORT = "jmh-report.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String report = DEFAULT_REPORT;
+        String[] jmhArgs = args;
+        if (args.length > 0 && args[0].endsWith(".json")) {
+            report = args[0];
+            jmhArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, jmhArgs, 0, jmhArgs.length);
+        }
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs))
+                .include(TransformationBenchmark.class.getSimpleName())
+                .include(DocumentAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(report)
+                .build();
+        new Runner(options).run();
+    }
+}
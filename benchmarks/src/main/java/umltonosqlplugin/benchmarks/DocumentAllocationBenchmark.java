@@ -0,0 +1,270 @@
+package umltonosqlplugin.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.MessageSink;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.output.DocumentOutput;
+import umltonosqlplugin.output.JsonDocumentBuilder;
+import umltonosqlplugin.output.MeteredDocumentOutput;
+import umltonosqlplugin.transformation.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of generating one document: rendering the entries of a collection, collecting them and writing
+ * the document through a {@link MeteredDocumentOutput}. Every operation generates the next document of a synthetic
+ * project and renders all of its entries, as the first diagram of a run does. {@link #before()} renders with
+ * {@link LegacyRendering}, the string concatenation the transformation used before {@link DocumentRenderer};
+ * {@link #after()} with the current classes. Run with the GC profiler, which {@link BenchmarkRunner} adds, to see
+ * the bytes allocated per document as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentAllocationBenchmark {
+
+    @Param({"1000"})
+    public int classes;
+
+    private ArrayList<CollectionPlan> collections;
+    private DocumentRenderer renderer;
+    private LegacyRendering legacy;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TransformationLog log = new TransformationLog(new MessageSink() {
+            @Override
+            public void showMessage(String text) {
+            }
+        }, LogLevel.SUMMARY);
+        ProjectTransformation transformation = new ProjectTransformation(new SyntheticModel().classes(classes).build(),
+                System.getProperty("java.io.tmpdir"), false, log);
+        collections = new ArrayList<>();
+        for (DiagramPlan plan : transformation.preview()) {
+            for (CollectionPlan collection : plan.getCollections()) {
+                if (!collection.isDropped())
+                    collections.add(collection);
+            }
+        }
+        log.close();
+        AttributeCache attributeCache = transformation.getAttributeCache();
+        renderer = new DocumentRenderer(attributeCache, new ClassNames());
+        legacy = new LegacyRendering(attributeCache);
+    }
+
+    @Benchmark
+    public Metrics before() throws IOException {
+        CollectionPlan collection = nextCollection();
+        Metrics metrics = new Metrics("before");
+        LegacyRendering.DocumentBuilder builder = new LegacyRendering.DocumentBuilder(new LegacyRendering.MeteredOutput(metrics, new HashSet<Path>()));
+        Path path = collection.getPath();
+        for (CollectionPlan.Entry entry : collection.getEntries()) {
+            String text = legacy.render(entry, path);
+            if (!text.isEmpty())
+                builder.append(path, text, true);
+        }
+        for (int i = 0; i < collection.getClosings(); i++)
+            builder.append(path, "\n}", false);
+        builder.flush();
+        return metrics;
+    }
+
+    @Benchmark
+    public Metrics after() throws IOException {
+        CollectionPlan collection = nextCollection();
+        Metrics metrics = new Metrics("after");
+        JsonDocumentBuilder builder = new JsonDocumentBuilder(new MeteredDocumentOutput(NullOutput.INSTANCE, metrics, new HashSet<Path>()));
+        Path path = collection.getPath();
+        String compositionName = null;
+        for (CollectionPlan.Entry entry : collection.getEntries()) {
+            if (entry.isComposition() && compositionName == null)
+                compositionName = DocumentRenderer.getCompositionName(path);
+            String text = renderer.render(entry, compositionName);
+            if (!text.isEmpty())
+                builder.append(path, text, true);
+        }
+        for (int i = 0; i < collection.getClosings(); i++)
+            builder.append(path, "\n}", false);
+        builder.flush();
+        return metrics;
+    }
+
+    private CollectionPlan nextCollection() {
+        CollectionPlan collection = collections.get(next);
+        next = next + 1 < collections.size() ? next + 1 : 0;
+        return collection;
+    }
+
+    /**
+     * An output that discards the documents, so only generating them is measured.
+     */
+    private static class NullOutput implements DocumentOutput {
+
+        private static final NullOutput INSTANCE = new NullOutput();
+
+        @Override
+        public boolean exists(Path path) {
+            return false;
+        }
+
+        @Override
+        public void create(Path path, String content) {
+        }
+
+        @Override
+        public void append(Path path, String content) {
+        }
+
+        @Override
+        public void delete(Path path) {
+        }
+    }
+
+    /**
+     * The rendering, document collection and byte counting of the transformation before the rendering layer, kept
+     * as the baseline: names are lowercased and fragments concatenated into a new builder for every entry, and the
+     * document is copied again to prepend its opening brace and encoded to count its bytes.
+     */
+    static class LegacyRendering {
+
+        private final AttributeCache attributeCache;
+
+        LegacyRendering(AttributeCache attributeCache) {
+            this.attributeCache = attributeCache;
+        }
+
+        String render(CollectionPlan.Entry entry, Path path) {
+            StringBuilder text = new StringBuilder();
+            switch (entry.getKind()) {
+                case ATTRIBUTES:
+                    writeClassAttributes(text, entry.getModelClass(), entry.getIndent());
+                    break;
+                case EMBED_ONE:
+                    writeEmbedOne(text, entry, path);
+                    break;
+                case EMBED_MANY:
+                    writeEmbedMany(text, entry, path);
+                    break;
+            }
+            return text.toString();
+        }
+
+        private void writeEmbedMany(StringBuilder text, CollectionPlan.Entry entry, Path path) {
+            ModelClass iClass = entry.getModelClass();
+            ModelClass idClass = entry.getSuperClass() != null ? entry.getSuperClass() : iClass;
+            text.append("\n\t\"").append(iClass.getName().toLowerCase()).append("s\": [");
+            if (entry.isComposition()) {
+                text.append("\n\t\t{\n\t\t\t\"").append(iClass.getName().toLowerCase()).append("\": \"").append(idClass.getName().toLowerCase()).append("ID_").append(getCompositionClassName(path)).append('"');
+            } else {
+                text.append("\n\t\t{\n\t\t\t\"").append(iClass.getName().toLowerCase()).append("\": \"").append(idClass.getName().toLowerCase()).append("ID\"");
+            }
+            if (entry.getSuperClass() != null)
+                writeClassAttributes(text, entry.getSuperClass(), entry.getIndent());
+            writeClassAttributes(text, iClass, entry.getIndent());
+            text.append("\n\t\t}\n\t]");
+        }
+
+        private void writeEmbedOne(StringBuilder text, CollectionPlan.Entry entry, Path path) {
+            ModelClass iClass = entry.getModelClass();
+            ModelClass idClass = entry.getSuperClass() != null ? entry.getSuperClass() : iClass;
+            text.append("\n\t\"").append(iClass.getName().toLowerCase()).append("\": {");
+            if (entry.isComposition()) {
+                text.append("\n\t\t\"").append(iClass.getName().toLowerCase()).append("\": \"").append(idClass.getName().toLowerCase()).append("ID_").append(getCompositionClassName(path)).append('"');
+            } else {
+                text.append("\n\t\t\"").append(iClass.getName().toLowerCase()).append("\": \"").append(idClass.getName().toLowerCase()).append("ID\"");
+            }
+            if (entry.getSuperClass() != null)
+                writeClassAttributes(text, entry.getSuperClass(), entry.getIndent());
+            writeClassAttributes(text, iClass, entry.getIndent());
+            text.append("\n\t}");
+        }
+
+        private static String getCompositionClassName(Path path) {
+            String compositionClassName = path.toString().substring(path.toString().lastIndexOf("\\") + 1);
+            return compositionClassName.lastIndexOf(".") > 0 ? compositionClassName.substring(0, compositionClassName.lastIndexOf(".")) : compositionClassName;
+        }
+
+        private void writeClassAttributes(StringBuilder text, ModelClass iClass, String whiteChars) {
+            for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+                if (attribute.isID())
+                    continue;
+                if (text.length() > 0)
+                    text.append(',');
+                text.append(whiteChars).append(attribute.getFragment());
+            }
+        }
+
+        static class DocumentBuilder {
+
+            private final LinkedHashMap<Path, Document> documents;
+            private final MeteredOutput output;
+
+            DocumentBuilder(MeteredOutput output) {
+                documents = new LinkedHashMap<>();
+                this.output = output;
+            }
+
+            void append(Path path, String text, boolean comma) {
+                Document document = documents.get(path);
+                if (document == null) {
+                    documents.put(path, new Document(text));
+                    return;
+                }
+                if (!text.equals("\n}") && comma)
+                    document.content.append(",").append(text);
+                else
+                    document.content.append(text);
+            }
+
+            ArrayList<Path> flush() {
+                ArrayList<Path> written = new ArrayList<>();
+                for (Map.Entry<Path, Document> entry : documents.entrySet()) {
+                    output.create(entry.getKey(), "{" + entry.getValue().content);
+                    written.add(entry.getKey());
+                }
+                documents.clear();
+                return written;
+            }
+        }
+
+        private static class Document {
+            private final StringBuilder content;
+
+            private Document(String text) {
+                this.content = new StringBuilder(text);
+            }
+        }
+
+        static class MeteredOutput {
+
+            private final Metrics metrics;
+            private final Set<Path> created;
+            private final Charset charset;
+
+            MeteredOutput(Metrics metrics, Set<Path> created) {
+                this.metrics = metrics;
+                this.created = created;
+                charset = Charset.defaultCharset();
+            }
+
+            void create(Path path, String content) {
+                metrics.opened();
+                metrics.closed();
+                metrics.fileCreated();
+                metrics.addBytesWritten(content.getBytes(charset).length);
+                created.add(path);
+            }
+        }
+    }
+}
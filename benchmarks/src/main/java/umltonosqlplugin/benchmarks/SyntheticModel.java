@@ -0,0 +1,133 @@
+package umltonosqlplugin.benchmarks;
+
+import umltonosqlplugin.model.memory.MemoryAssociation;
+import umltonosqlplugin.model.memory.MemoryClass;
+import umltonosqlplugin.model.memory.MemoryDiagram;
+import umltonosqlplugin.model.memory.MemoryProject;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates synthetic projects of a given size. Association and generalization densities are per class: an
+ * association density of 2 creates twice as many associations as classes, a generalization density of 0.1 makes
+ * every tenth class a subclass. The composition density is the share of associations that are compositions and
+ * the association class density the share of many-to-many associations that get an association class.
+ */
+public class SyntheticModel {
+
+    private int classes = 1000;
+    private int classesPerDiagram = 50;
+    private int attributesPerClass = 6;
+    private double associationDensity = 1.0;
+    private double compositionDensity = 0.1;
+    private double generalizationDensity = 0.1;
+    private double associationClassDensity = 0.05;
+    private long seed = 42;
+
+    public SyntheticModel classes(int classes) {
+        this.classes = classes;
+        return this;
+    }
+
+    public SyntheticModel classesPerDiagram(int classesPerDiagram) {
+        this.classesPerDiagram = classesPerDiagram;
+        return this;
+    }
+
+    public SyntheticModel attributesPerClass(int attributesPerClass) {
+        this.attributesPerClass = attributesPerClass;
+        return this;
+    }
+
+    public SyntheticModel associationDensity(double associationDensity) {
+        this.associationDensity = associationDensity;
+        return this;
+    }
+
+    public SyntheticModel compositionDensity(double compositionDensity) {
+        this.compositionDensity = compositionDensity;
+        return this;
+    }
+
+    public SyntheticModel generalizationDensity(double generalizationDensity) {
+        this.generalizationDensity = generalizationDensity;
+        return this;
+    }
+
+    public SyntheticModel associationClassDensity(double associationClassDensity) {
+        this.associationClassDensity = associationClassDensity;
+        return this;
+    }
+
+    public SyntheticModel seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public MemoryProject build() {
+        Random random = new Random(seed);
+        MemoryProject project = new MemoryProject();
+        ArrayList<MemoryClass> modelClasses = new ArrayList<>(classes);
+        ArrayList<MemoryDiagram> diagrams = new ArrayList<>();
+        MemoryDiagram diagram = null;
+        for (int i = 0; i < classes; i++) {
+            if (i % classesPerDiagram == 0) {
+                diagram = project.addDiagram("Diagram" + (i / classesPerDiagram));
+                diagrams.add(diagram);
+            }
+            MemoryClass modelClass = new MemoryClass("Class" + i);
+            modelClass.addIdAttribute("id", "int", true);
+            for (int j = 0; j < attributesPerClass; j++)
+                addAttribute(modelClass, j, random);
+            modelClasses.add(modelClass);
+            diagram.addClass(modelClass);
+        }
+        if (classes < 2)
+            return project;
+        for (int i = 1; i < classes; i++) {
+            if (random.nextDouble() < generalizationDensity)
+                modelClasses.get(random.nextInt(i)).addSubClass(modelClasses.get(i));
+        }
+        int associations = (int) Math.round(classes * associationDensity);
+        int associationClasses = 0;
+        for (int i = 0; i < associations; i++) {
+            MemoryClass from = modelClasses.get(random.nextInt(classes));
+            MemoryClass to = modelClasses.get(random.nextInt(classes));
+            if (from == to)
+                continue;
+            if (random.nextDouble() < compositionDensity) {
+                MemoryAssociation.associate(from, "None", random.nextBoolean() ? "*" : "1", to, "Composited", "1");
+                continue;
+            }
+            String fromMultiplicity = random.nextBoolean() ? "*" : "1";
+            String toMultiplicity = random.nextBoolean() ? "*" : "1";
+            MemoryAssociation association = MemoryAssociation.associate(from, "None", fromMultiplicity, to, "None", toMultiplicity);
+            if (fromMultiplicity.equals("*") && toMultiplicity.equals("*") && random.nextDouble() < associationClassDensity) {
+                MemoryClass assoClass = new MemoryClass("Link" + associationClasses++);
+                assoClass.addIdAttribute("id", "int", true);
+                addAttribute(assoClass, 0, random);
+                assoClass.addAssociationAsClass(association);
+                diagrams.get(random.nextInt(diagrams.size())).addClass(assoClass);
+            }
+        }
+        return project;
+    }
+
+    private static void addAttribute(MemoryClass modelClass, int index, Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                modelClass.addAttribute("name" + index, "String", false);
+                break;
+            case 1:
+                modelClass.addAttribute("created" + index, "DateTime", false);
+                break;
+            case 2:
+                modelClass.addAttribute("amount" + index, "int", true);
+                break;
+            default:
+                modelClass.addAttribute("ref" + index, "Class" + random.nextInt(100), false);
+                break;
+        }
+    }
+}
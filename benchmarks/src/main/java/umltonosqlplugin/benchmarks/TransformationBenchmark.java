@@ -0,0 +1,125 @@
+package umltonosqlplugin.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.MessageSink;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.memory.MemoryProject;
+import umltonosqlplugin.transformation.DiagramTransformation;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the phases of a transformation on synthetic projects: discovery of association classes and
+ * generalizations, association resolution (a model without attributes), attribute rendering (a model without
+ * associations) and the full run including file output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransformationBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int classes;
+
+    @Param({"1.0"})
+    public double associationDensity;
+
+    @Param({"0.1"})
+    public double compositionDensity;
+
+    @Param({"0.1"})
+    public double generalizationDensity;
+
+    @Param({"0.05"})
+    public double associationClassDensity;
+
+    private MemoryProject project;
+    private MemoryProject associationProject;
+    private MemoryProject attributeProject;
+    private TransformationLog log;
+    private Path outputDir;
+    private ArrayList<DiagramTransformation> associationTransformations;
+    private ArrayList<DiagramTransformation> attributeTransformations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        project = model().build();
+        associationProject = model().attributesPerClass(0).build();
+        attributeProject = model().associationDensity(0).generalizationDensity(0).build();
+        log = new TransformationLog(new MessageSink() {
+            @Override
+            public void showMessage(String text) {
+            }
+        }, LogLevel.SUMMARY);
+        outputDir = Files.createTempDirectory("umltonosql-benchmark");
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareDiagrams() {
+        associationTransformations = new ProjectTransformation(associationProject, outputDir.toString(), true, log).prepare();
+        attributeTransformations = new ProjectTransformation(attributeProject, outputDir.toString(), true, log).prepare();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        deleteRecursively(outputDir);
+    }
+
+    @Benchmark
+    public ArrayList<DiagramTransformation> discovery() {
+        return new ProjectTransformation(project, outputDir.toString(), true, log).prepare();
+    }
+
+    @Benchmark
+    public void associationResolution(Blackhole blackhole) {
+        for (DiagramTransformation transformation : associationTransformations)
+            blackhole.consume(transformation.call());
+    }
+
+    @Benchmark
+    public void attributeRendering(Blackhole blackhole) {
+        for (DiagramTransformation transformation : attributeTransformations)
+            blackhole.consume(transformation.call());
+    }
+
+    @Benchmark
+    public void endToEnd() {
+        new ProjectTransformation(project, outputDir.toString(), false, log).run();
+    }
+
+    private SyntheticModel model() {
+        return new SyntheticModel()
+                .classes(classes)
+                .associationDensity(associationDensity)
+                .compositionDensity(compositionDensity)
+                .generalizationDensity(generalizationDensity)
+                .associationClassDensity(associationClassDensity);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
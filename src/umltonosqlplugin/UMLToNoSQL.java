@@ -1,20 +1,78 @@
 package umltonosqlplugin;
 
+import com.vp.plugin.ApplicationManager;
 import com.vp.plugin.VPPlugin;
 import com.vp.plugin.VPPluginInfo;
+import umltonosqlplugin.actions.Dialogs;
+import umltonosqlplugin.model.ModelProject;
+import umltonosqlplugin.model.memory.MemoryProject;
+import umltonosqlplugin.model.vp.VpChangeListener;
+import umltonosqlplugin.model.vp.VpModelAdapter;
+import umltonosqlplugin.transformation.LiveTransformation;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 public class UMLToNoSQL implements VPPlugin {
 
+    /**
+     * Starts live mode into this directory when the plugin is loaded.
+     */
+    public static final String LIVE_DIRECTORY_PROPERTY = "umltonosql.live.dir";
+
+    private static LiveTransformation live;
+    private static VpChangeListener listener;
+
     public UMLToNoSQL() {
     }
 
     @Override
     public void loaded(VPPluginInfo vpPluginInfo) {
-
+        String pathToDir = System.getProperty(LIVE_DIRECTORY_PROPERTY);
+        if (pathToDir != null && !pathToDir.trim().isEmpty())
+            startLiveMode(pathToDir.trim());
     }
 
     @Override
     public void unloaded() {
+        stopLiveMode();
+    }
+
+    /**
+     * Regenerates the diagrams affected by every model change into {@code pathToDir} until {@link #stopLiveMode()}.
+     * Every update copies the project on the event dispatch thread and transforms the copy on the live thread.
+     */
+    public static synchronized void startLiveMode(String pathToDir) {
+        stopLiveMode();
+        live = new LiveTransformation(new Callable<ModelProject>() {
+            @Override
+            public ModelProject call() throws Exception {
+                FutureTask<ModelProject> copy = new FutureTask<>(new Callable<ModelProject>() {
+                    @Override
+                    public ModelProject call() {
+                        return MemoryProject.copyOf(new VpModelAdapter(ApplicationManager.instance().getProjectManager().getProject()));
+                    }
+                });
+                SwingUtilities.invokeLater(copy);
+                return copy.get();
+            }
+        }, pathToDir, LiveTransformation.getDebounceFromSystemProperties(), Dialogs.messagePane());
+        listener = new VpChangeListener(live);
+        listener.attach(ApplicationManager.instance().getProjectManager().getProject());
+        live.start();
+    }
+
+    public static synchronized void stopLiveMode() {
+        if (live == null)
+            return;
+        listener.detach();
+        live.stop();
+        listener = null;
+        live = null;
+    }
 
+    public static synchronized boolean isLiveModeRunning() {
+        return live != null;
     }
 }
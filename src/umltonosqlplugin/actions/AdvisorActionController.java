@@ -0,0 +1,78 @@
+package umltonosqlplugin.actions;
+
+import com.vp.plugin.ApplicationManager;
+import com.vp.plugin.action.VPAction;
+import com.vp.plugin.action.VPActionController;
+import com.vp.plugin.model.IProject;
+import umltonosqlplugin.advisor.CollectionAdvice;
+import umltonosqlplugin.advisor.IndexAdvisor;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.vp.VpModelAdapter;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Writes the indexes, document sizes, growth warnings and shard-key candidates of the NoSQL model into
+ * {@value IndexAdvisor#FILE} and shows a summary of them.
+ */
+public class AdvisorActionController implements VPActionController {
+
+    private SwingWorker<String, Void> worker;
+    private TransformationLog log;
+
+    @Override
+    public void performAction(VPAction vpAction) {
+        if (worker != null && !worker.isDone()) {
+            Dialogs.showMessageInPane("Operation already in progress");
+            return;
+        }
+        log = TransformationLog.fromSystemProperties(Dialogs.messagePane());
+        final String pathToDir = Dialogs.chooseDirectory();
+        if (pathToDir == null) {
+            log.log(LogLevel.SUMMARY, "Operation cancelled");
+            log.close();
+            return;
+        }
+        IProject project = ApplicationManager.instance().getProjectManager().getProject();
+        final ProjectTransformation transformation = new ProjectTransformation(new VpModelAdapter(project), pathToDir, false, log);
+        final IndexAdvisor advisor;
+        try {
+            advisor = IndexAdvisor.fromSystemProperties(transformation.getAttributeCache(), transformation.getRelationships());
+        } catch (IllegalArgumentException e) {
+            log.log(LogLevel.SUMMARY, "Invalid advisor settings: " + e.getMessage());
+            log.close();
+            return;
+        }
+        log.log(LogLevel.SUMMARY, "Index advisor started: " + pathToDir);
+        worker = new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                List<CollectionAdvice> advice = advisor.advise(transformation.preview());
+                Path written = advisor.write(Paths.get(pathToDir), advice);
+                return advisor.getSummary(advice) + "\nIndex advice written to: " + written;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    log.log(LogLevel.SUMMARY, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    log.log(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+                }
+                log.close();
+            }
+        };
+        worker.execute();
+    }
+
+    @Override
+    public void update(VPAction vpAction) {
+
+    }
+}
@@ -0,0 +1,60 @@
+package umltonosqlplugin.actions;
+
+import com.vp.plugin.ApplicationManager;
+import com.vp.plugin.ViewManager;
+import umltonosqlplugin.log.MessageSink;
+
+import javax.swing.*;
+import java.io.File;
+
+/**
+ * Message pane and directory chooser shared by the actions of the plugin.
+ */
+public final class Dialogs {
+
+    private static final String MESSAGE_PANE = "umltonosqlplugin";
+
+    private Dialogs() {
+    }
+
+    /**
+     * Returns a sink that shows log messages in the message pane of the plugin.
+     */
+    public static MessageSink messagePane() {
+        return new MessageSink() {
+            @Override
+            public void showMessage(String text) {
+                showMessageInPane(text);
+            }
+        };
+    }
+
+    /**
+     * Shows {@code text} in the message pane of the plugin. May be called from any thread.
+     */
+    public static void showMessageInPane(final String text) {
+        final ViewManager viewManager = ApplicationManager.instance().getViewManager();
+        if (SwingUtilities.isEventDispatchThread()) {
+            viewManager.showMessage(text, MESSAGE_PANE);
+        } else {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    viewManager.showMessage(text, MESSAGE_PANE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Asks for the output directory and returns its absolute path, or {@code null} when none was chosen.
+     */
+    static String chooseDirectory() {
+        ViewManager viewManager = ApplicationManager.instance().getViewManager();
+        JFileChooser fileChooser = viewManager.createJFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        fileChooser.showSaveDialog(viewManager.getRootFrame());
+        File file = fileChooser.getSelectedFile();
+        return file == null ? null : file.getAbsolutePath();
+    }
+}
@@ -0,0 +1,108 @@
+package umltonosqlplugin.actions;
+
+import com.vp.plugin.ApplicationManager;
+import com.vp.plugin.ViewManager;
+import com.vp.plugin.action.VPAction;
+import com.vp.plugin.action.VPActionController;
+import com.vp.plugin.model.IProject;
+import umltonosqlplugin.export.BulkExporter;
+import umltonosqlplugin.export.ExportFormat;
+import umltonosqlplugin.export.ExportedCollection;
+import umltonosqlplugin.export.SampleDataGenerator;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.vp.VpModelAdapter;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import javax.swing.*;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Exports the NoSQL model as bulk-load files: newline-delimited JSON and, on request, BSON, one file per collection.
+ * With sample data, every collection is filled with generated documents instead of the template document.
+ */
+public class ExportActionController implements VPActionController {
+
+    private final boolean sampleData;
+    private ViewManager viewManager;
+    private SwingWorker<List<ExportedCollection>, Void> worker;
+    private TransformationLog log;
+
+    public ExportActionController() {
+        this(false);
+    }
+
+    protected ExportActionController(boolean sampleData) {
+        this.sampleData = sampleData;
+    }
+
+    @Override
+    public void performAction(VPAction vpAction) {
+        viewManager = ApplicationManager.instance().getViewManager();
+        if (worker != null && !worker.isDone()) {
+            Dialogs.showMessageInPane("Operation already in progress");
+            return;
+        }
+        log = TransformationLog.fromSystemProperties(Dialogs.messagePane());
+        final String pathToDir = Dialogs.chooseDirectory();
+        if (pathToDir == null) {
+            log.log(LogLevel.SUMMARY, "Operation cancelled");
+            log.close();
+            return;
+        }
+        final EnumSet<ExportFormat> formats = EnumSet.of(ExportFormat.NDJSON);
+        if (JOptionPane.showConfirmDialog(viewManager.getRootFrame(), "Also write BSON files for mongorestore?", "Export NoSQL model", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION)
+            formats.add(ExportFormat.BSON);
+        IProject project = ApplicationManager.instance().getProjectManager().getProject();
+        final ProjectTransformation transformation = new ProjectTransformation(new VpModelAdapter(project), pathToDir, false, log);
+        final SampleDataGenerator generator = sampleData ? createGenerator(transformation, formats) : null;
+        if (sampleData && generator == null) {
+            log.close();
+            return;
+        }
+        log.log(LogLevel.SUMMARY, "Export started: " + pathToDir);
+        worker = new SwingWorker<List<ExportedCollection>, Void>() {
+            @Override
+            protected List<ExportedCollection> doInBackground() throws Exception {
+                if (generator != null)
+                    return generator.generate(pathToDir, transformation.preview());
+                return new BulkExporter(transformation.getAttributeCache(), formats).export(pathToDir, transformation.preview());
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    List<ExportedCollection> collections = get();
+                    log.log(LogLevel.SUMMARY, "Export completed: " + collections.size() + " collections, manifest: " + BulkExporter.MANIFEST);
+                } catch (InterruptedException | ExecutionException e) {
+                    log.log(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+                }
+                log.close();
+            }
+        };
+        worker.execute();
+    }
+
+    private SampleDataGenerator createGenerator(ProjectTransformation transformation, EnumSet<ExportFormat> formats) {
+        SampleDataGenerator generator;
+        try {
+            generator = SampleDataGenerator.fromSystemProperties(transformation.getAttributeCache()).formats(formats);
+            String documents = JOptionPane.showInputDialog(viewManager.getRootFrame(), "Documents per collection:", generator.getDocuments());
+            if (documents == null) {
+                log.log(LogLevel.SUMMARY, "Operation cancelled");
+                return null;
+            }
+            return generator.documents(Long.parseLong(documents.trim()));
+        } catch (IllegalArgumentException e) {
+            log.log(LogLevel.SUMMARY, "Invalid sample data settings: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void update(VPAction vpAction) {
+
+    }
+}
@@ -0,0 +1,8 @@
+package umltonosqlplugin.actions;
+
+public class IncrementalActionController extends ActionController {
+
+    public IncrementalActionController() {
+        super(true);
+    }
+}
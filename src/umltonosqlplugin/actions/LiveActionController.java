@@ -0,0 +1,30 @@
+package umltonosqlplugin.actions;
+
+import com.vp.plugin.action.VPAction;
+import com.vp.plugin.action.VPActionController;
+import umltonosqlplugin.UMLToNoSQL;
+
+/**
+ * Turns live mode on, into a chosen directory, or off again.
+ */
+public class LiveActionController implements VPActionController {
+
+    @Override
+    public void performAction(VPAction vpAction) {
+        if (UMLToNoSQL.isLiveModeRunning()) {
+            UMLToNoSQL.stopLiveMode();
+            return;
+        }
+        String pathToDir = Dialogs.chooseDirectory();
+        if (pathToDir == null) {
+            Dialogs.showMessageInPane("Operation cancelled");
+            return;
+        }
+        UMLToNoSQL.startLiveMode(pathToDir);
+    }
+
+    @Override
+    public void update(VPAction vpAction) {
+        vpAction.setLabel(UMLToNoSQL.isLiveModeRunning() ? "Stop live NoSQL model" : "Start live NoSQL model");
+    }
+}
@@ -0,0 +1,61 @@
+package umltonosqlplugin.actions;
+
+import com.vp.plugin.ApplicationManager;
+import com.vp.plugin.action.VPAction;
+import com.vp.plugin.action.VPActionController;
+import com.vp.plugin.model.IProject;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.vp.VpModelAdapter;
+import umltonosqlplugin.transformation.DiagramPlan;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shows the documents a generation would produce for every class diagram, without asking for a directory
+ * and without writing anything.
+ */
+public class PreviewActionController implements VPActionController {
+
+    private SwingWorker<ArrayList<DiagramPlan>, Void> worker;
+    private TransformationLog log;
+
+    @Override
+    public void performAction(VPAction vpAction) {
+        if (worker != null && !worker.isDone()) {
+            Dialogs.showMessageInPane("Operation already in progress");
+            return;
+        }
+        log = TransformationLog.fromSystemProperties(Dialogs.messagePane());
+        log.log(LogLevel.SUMMARY, "Preview started");
+        IProject project = ApplicationManager.instance().getProjectManager().getProject();
+        final ProjectTransformation transformation = new ProjectTransformation(new VpModelAdapter(project), "", false, log);
+        worker = new SwingWorker<ArrayList<DiagramPlan>, Void>() {
+            @Override
+            protected ArrayList<DiagramPlan> doInBackground() {
+                return transformation.preview();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    for (DiagramPlan plan : get())
+                        log.log(LogLevel.SUMMARY, plan.describe());
+                    log.log(LogLevel.SUMMARY, "Preview completed");
+                } catch (InterruptedException | ExecutionException e) {
+                    log.log(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+                }
+                log.close();
+            }
+        };
+        worker.execute();
+    }
+
+    @Override
+    public void update(VPAction vpAction) {
+
+    }
+}
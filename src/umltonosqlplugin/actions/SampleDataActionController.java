@@ -0,0 +1,8 @@
+package umltonosqlplugin.actions;
+
+public class SampleDataActionController extends ExportActionController {
+
+    public SampleDataActionController() {
+        super(true);
+    }
+}
@@ -0,0 +1,114 @@
+package umltonosqlplugin.actions;
+
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.transformation.DiagramTransformation;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+/**
+ * Runs the project transformation off the event dispatch thread. Every class diagram is transformed as its
+ * own task on a pool sized to the available cores; the documents of each diagram are then written in
+ * diagram order, with progress and cancellation exposed through a {@link ProgressMonitor}.
+ * <p>
+ * The progress monitor is not modal, so the model can be edited while the worker runs. The transformation must
+ * therefore be given a project read in full on the event dispatch thread, such as a
+ * {@link umltonosqlplugin.model.memory.MemoryProject#copyOf copy}, never the live Visual Paradigm model.
+ */
+class TransformationWorker extends SwingWorker<Void, Void> {
+
+    private final ActionController controller;
+    private final ProjectTransformation projectTransformation;
+    private final ProgressMonitor progressMonitor;
+    private final Timer cancelTimer;
+
+    TransformationWorker(ActionController controller, ProjectTransformation projectTransformation, Component parentFrame) {
+        this.controller = controller;
+        this.projectTransformation = projectTransformation;
+        progressMonitor = new ProgressMonitor(parentFrame, "Generating NoSQL model", "Finding association classes and generalizations", 0, 100);
+        progressMonitor.setMillisToDecideToPopup(0);
+        addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName()))
+                    progressMonitor.setProgress((Integer) evt.getNewValue());
+            }
+        });
+        cancelTimer = new Timer(250, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (progressMonitor.isCanceled())
+                    cancel(true);
+            }
+        });
+        cancelTimer.start();
+    }
+
+    @Override
+    protected Void doInBackground() throws Exception {
+        ArrayList<DiagramTransformation> transformations = projectTransformation.prepare();
+        if (transformations.isEmpty()) {
+            projectTransformation.complete();
+            return null;
+        }
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), transformations.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayList<Future<DiagramTransformation>> futures = new ArrayList<>();
+            for (DiagramTransformation transformation : transformations)
+                futures.add(executor.submit(transformation));
+            for (int i = 0; i < futures.size(); i++) {
+                if (isCancelled())
+                    break;
+                DiagramTransformation transformation = transformations.get(i);
+                showNote("Diagram " + (i + 1) + " of " + futures.size() + ": " + transformation.getDiagram().getName());
+                try {
+                    futures.get(i).get();
+                    transformation.merge();
+                } catch (ExecutionException e) {
+                    controller.showMessage("Diagram processing failed: " + transformation.getDiagram().getName());
+                    controller.showMessage(TransformationLog.stackTrace(e.getCause()));
+                }
+                setProgress((i + 1) * 100 / futures.size());
+            }
+            if (!isCancelled())
+                projectTransformation.complete();
+        } finally {
+            executor.shutdownNow();
+        }
+        return null;
+    }
+
+    private void showNote(final String note) {
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                progressMonitor.setNote(note);
+            }
+        });
+    }
+
+    @Override
+    protected void done() {
+        cancelTimer.stop();
+        progressMonitor.close();
+        if (isCancelled())
+            controller.showMessage("Operation cancelled");
+        else {
+            try {
+                get();
+            } catch (InterruptedException | ExecutionException e) {
+                controller.showMessage(TransformationLog.stackTrace(e));
+            }
+            controller.showMessage("Operation completed");
+        }
+        controller.closeLog();
+    }
+}
@@ -0,0 +1,288 @@
+package umltonosqlplugin.advisor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes, estimated size, growth and shard-key candidates of one collection of a diagram. Sizes are BSON bytes of
+ * a document with the placeholder values of the generated {@code .json} files.
+ */
+public class CollectionAdvice {
+
+    public enum FlagKind {
+        UNBOUNDED_EMBED, DOCUMENT_LIMIT, WRITE_AMPLIFICATION
+    }
+
+    private final String diagramName;
+    private final String name;
+    private final String owner;
+    private final String whole;
+    private final ArrayList<Index> indexes;
+    private final ArrayList<Growth> arrays;
+    private final ArrayList<Flag> flags;
+    private final ArrayList<ShardKey> shardKeys;
+    private int attributes;
+    private int depth;
+    private long estimatedBytes;
+    private long projectedBytes;
+
+    CollectionAdvice(String diagramName, String name, String owner, String whole) {
+        this.diagramName = diagramName;
+        this.name = name;
+        this.owner = owner;
+        this.whole = whole;
+        indexes = new ArrayList<>();
+        arrays = new ArrayList<>();
+        flags = new ArrayList<>();
+        shardKeys = new ArrayList<>();
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the name of the class the documents are generated for, or {@code null}.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the name of the whole a composited part is stored with, or {@code null}.
+     */
+    public String getWhole() {
+        return whole;
+    }
+
+    public List<Index> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    public List<Growth> getArrays() {
+        return Collections.unmodifiableList(arrays);
+    }
+
+    public List<Flag> getFlags() {
+        return Collections.unmodifiableList(flags);
+    }
+
+    public List<ShardKey> getShardKeys() {
+        return Collections.unmodifiableList(shardKeys);
+    }
+
+    /**
+     * Returns the number of scalar members of a document, counting every embedded object once.
+     */
+    public int getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns how deep a document nests: 1 for attributes only, 2 with an embedded object, 3 with an array of them.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the size of a document with one element in every array, like the generated template.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Returns the size of a document once its arrays hold the expected number of elements.
+     */
+    public long getProjectedBytes() {
+        return projectedBytes;
+    }
+
+    void addIndex(Index index) {
+        for (Index existing : indexes) {
+            if (existing.keys.equals(index.keys))
+                return;
+        }
+        indexes.add(index);
+    }
+
+    void addArray(Growth growth) {
+        arrays.add(growth);
+    }
+
+    void addFlag(Flag flag) {
+        flags.add(flag);
+    }
+
+    void addShardKey(ShardKey shardKey) {
+        for (ShardKey existing : shardKeys) {
+            if (existing.keys.equals(shardKey.keys))
+                return;
+        }
+        shardKeys.add(shardKey);
+    }
+
+    void setSize(int attributes, int depth, long estimatedBytes, long projectedBytes) {
+        this.attributes = attributes;
+        this.depth = depth;
+        this.estimatedBytes = estimatedBytes;
+        this.projectedBytes = projectedBytes;
+    }
+
+    /**
+     * Index in the form of a MongoDB index specification: fields in order, each {@code 1} or {@code "hashed"}.
+     */
+    public static class Index {
+
+        private final LinkedHashMap<String, Object> keys;
+        private final boolean unique;
+        private final boolean multikey;
+        private final String references;
+        private final String reason;
+
+        Index(LinkedHashMap<String, Object> keys, boolean unique, boolean multikey, String references, String reason) {
+            this.keys = keys;
+            this.unique = unique;
+            this.multikey = multikey;
+            this.references = references;
+            this.reason = reason;
+        }
+
+        public Map<String, Object> getKeys() {
+            return Collections.unmodifiableMap(keys);
+        }
+
+        /**
+         * Returns the index name MongoDB would give the index, such as {@code order.order_1}.
+         */
+        public String getName() {
+            StringBuilder name = new StringBuilder();
+            for (Map.Entry<String, Object> key : keys.entrySet()) {
+                if (name.length() > 0)
+                    name.append('_');
+                name.append(key.getKey()).append('_').append(key.getValue());
+            }
+            return name.toString();
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        /**
+         * Returns whether the indexed field is inside an array, so every element gets an index entry.
+         */
+        public boolean isMultikey() {
+            return multikey;
+        }
+
+        /**
+         * Returns the ID the indexed field refers to, such as {@code orderID}, or {@code null}.
+         */
+        public String getReferences() {
+            return references;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Array of embedded documents and how far it can grow.
+     */
+    public static class Growth {
+
+        private final String field;
+        private final String multiplicity;
+        private final long elementBytes;
+        private final long maxElements;
+        private final boolean unbounded;
+
+        Growth(String field, String multiplicity, long elementBytes, long maxElements, boolean unbounded) {
+            this.field = field;
+            this.multiplicity = multiplicity;
+            this.elementBytes = elementBytes;
+            this.maxElements = maxElements;
+            this.unbounded = unbounded;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * Returns the multiplicity of the embedded class, or {@code null} when the model does not state one.
+         */
+        public String getMultiplicity() {
+            return multiplicity;
+        }
+
+        public long getElementBytes() {
+            return elementBytes;
+        }
+
+        /**
+         * Returns how many elements fit into the document size limit when only this array grows.
+         */
+        public long getMaxElements() {
+            return maxElements;
+        }
+
+        public boolean isUnbounded() {
+            return unbounded;
+        }
+    }
+
+    public static class Flag {
+
+        private final FlagKind kind;
+        private final String field;
+        private final String detail;
+
+        Flag(FlagKind kind, String field, String detail) {
+            this.kind = kind;
+            this.field = field;
+            this.detail = detail;
+        }
+
+        public FlagKind getKind() {
+            return kind;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    public static class ShardKey {
+
+        private final LinkedHashMap<String, Object> keys;
+        private final String reason;
+
+        ShardKey(LinkedHashMap<String, Object> keys, String reason) {
+            this.keys = keys;
+            this.reason = reason;
+        }
+
+        public Map<String, Object> getKeys() {
+            return Collections.unmodifiableMap(keys);
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
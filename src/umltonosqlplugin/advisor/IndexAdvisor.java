@@ -0,0 +1,409 @@
+package umltonosqlplugin.advisor;
+
+import umltonosqlplugin.model.AssociationEndKind;
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.model.RelationshipIndex;
+import umltonosqlplugin.output.JsonStrings;
+import umltonosqlplugin.transformation.AttributeCache;
+import umltonosqlplugin.transformation.CollectionPlan;
+import umltonosqlplugin.transformation.DiagramPlan;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Analyses the planned documents of every diagram for the target database: an index for every field referring to
+ * the ID of another document, a unique compound index for association classes, the BSON size of the documents
+ * with their arrays of embedded documents at {@value #ELEMENTS_PROPERTY} elements, arrays that can grow without
+ * limit or past {@link #DOCUMENT_LIMIT}, classes copied into several collections and shard-key candidates.
+ * {@link #write(Path, List)} stores the result as {@value #FILE}.
+ */
+public class IndexAdvisor {
+
+    public static final String FILE = "indexes.json";
+    public static final String ELEMENTS_PROPERTY = "umltonosql.advisor.elements";
+    public static final long DOCUMENT_LIMIT = 16L * 1024 * 1024;
+
+    private static final int OBJECT_ID_BYTES = 12;
+    private static final int STRING_BYTES = 16;
+
+    private final AttributeCache attributeCache;
+    private final RelationshipIndex relationships;
+    private long expectedElements;
+
+    public IndexAdvisor(AttributeCache attributeCache, RelationshipIndex relationships) {
+        this.attributeCache = attributeCache;
+        this.relationships = relationships;
+        expectedElements = 1000;
+    }
+
+    /**
+     * Creates an advisor expecting {@value #ELEMENTS_PROPERTY} elements in an array of embedded documents.
+     */
+    public static IndexAdvisor fromSystemProperties(AttributeCache attributeCache, RelationshipIndex relationships) {
+        IndexAdvisor advisor = new IndexAdvisor(attributeCache, relationships);
+        return advisor.expectedElements(Long.getLong(ELEMENTS_PROPERTY, advisor.expectedElements));
+    }
+
+    public IndexAdvisor expectedElements(long expectedElements) {
+        if (expectedElements < 1)
+            throw new IllegalArgumentException("expected elements must be positive: " + expectedElements);
+        this.expectedElements = expectedElements;
+        return this;
+    }
+
+    public long getExpectedElements() {
+        return expectedElements;
+    }
+
+    public List<CollectionAdvice> advise(List<DiagramPlan> plans) {
+        LinkedHashMap<String, CollectionAdvice> advice = new LinkedHashMap<>();
+        LinkedHashMap<String, ArrayList<CollectionPlan.Entry>> entries = new LinkedHashMap<>();
+        for (DiagramPlan plan : plans) {
+            for (CollectionPlan collection : plan.getCollections()) {
+                if (collection.isDropped())
+                    continue;
+                String name = collection.getCollectionName();
+                String key = plan.getDiagramName() + "/" + name;
+                if (!advice.containsKey(key)) {
+                    advice.put(key, new CollectionAdvice(plan.getDiagramName(), name,
+                            collection.getOwner() != null ? collection.getOwner().getName() : null,
+                            collection.getWhole() != null ? collection.getWhole().getName() : null));
+                    entries.put(key, new ArrayList<CollectionPlan.Entry>());
+                }
+                entries.get(key).addAll(collection.getEntries());
+            }
+        }
+        for (Map.Entry<String, CollectionAdvice> collection : advice.entrySet())
+            analyze(collection.getValue(), entries.get(collection.getKey()));
+        flagCopies(advice, entries);
+        return new ArrayList<>(advice.values());
+    }
+
+    private void analyze(CollectionAdvice advice, List<CollectionPlan.Entry> entries) {
+        long base = 4 + element("_id") + OBJECT_ID_BYTES + 1;
+        long arrays = 0;
+        long projectedArrays = 0;
+        int attributes = 0;
+        int depth = 1;
+        ArrayList<String> references = new ArrayList<>();
+        ArrayList<CollectionPlan.Entry> many = new ArrayList<>();
+        ArrayList<Long> elementBytes = new ArrayList<>();
+        HashSet<String> fields = new HashSet<>();
+        for (CollectionPlan.Entry entry : entries) {
+            String field = entry.getModelClass().getName().toLowerCase();
+            if (entry.getKind() != CollectionPlan.EntryKind.ATTRIBUTES && !fields.add(getFieldName(entry)))
+                continue;
+            depth = Math.max(depth, entry.getDepth());
+            switch (entry.getKind()) {
+                case ATTRIBUTES:
+                    base += attributeBytes(entry.getModelClass());
+                    attributes += countAttributes(entry.getModelClass());
+                    break;
+                case EMBED_ONE:
+                    base += element(field) + embeddedBytes(entry, advice.getName());
+                    attributes += countEmbedded(entry);
+                    addReference(advice, entry, field, field + "." + field, false);
+                    references.add(field + "." + field);
+                    break;
+                case EMBED_MANY:
+                    long object = embeddedBytes(entry, advice.getName());
+                    base += element(field + "s") + 4 + 1;
+                    arrays += arrayBytes(1, object);
+                    int upper = AssociationEndKind.upperBound(entry.getMultiplicity());
+                    long elements = upper == AssociationEndKind.UNBOUNDED || upper < 0 ? expectedElements : Math.min(upper, expectedElements);
+                    projectedArrays += arrayBytes(elements, object);
+                    attributes += countEmbedded(entry);
+                    addReference(advice, entry, field + "s", field + "s." + field, true);
+                    many.add(entry);
+                    elementBytes.add(object);
+                    break;
+            }
+        }
+        long estimated = base + arrays;
+        long projected = base + projectedArrays;
+        advice.setSize(attributes, depth, estimated, projected);
+        for (int i = 0; i < many.size(); i++)
+            addGrowth(advice, many.get(i), elementBytes.get(i), base);
+        if (projected > DOCUMENT_LIMIT)
+            advice.addFlag(new CollectionAdvice.Flag(CollectionAdvice.FlagKind.DOCUMENT_LIMIT, null,
+                    "about " + projected + " bytes with " + expectedElements + " elements per array, over the " + DOCUMENT_LIMIT + " byte document limit"));
+        boolean associationClass = advice.getOwner() != null && advice.getWhole() == null && relationships.isAssociationClass(advice.getOwner());
+        if (associationClass && references.size() >= 2) {
+            LinkedHashMap<String, Object> keys = new LinkedHashMap<>();
+            keys.put(references.get(0), 1);
+            keys.put(references.get(1), 1);
+            advice.addIndex(new CollectionAdvice.Index(keys, true, false, null,
+                    "association class " + advice.getOwner() + ": one document per linked pair, looked up from either end"));
+            advice.addShardKey(new CollectionAdvice.ShardKey(new LinkedHashMap<>(keys),
+                    "association class: both ends are queried and pairs have a high cardinality"));
+        }
+        for (CollectionPlan.Entry entry : entries) {
+            if (entry.getKind() == CollectionPlan.EntryKind.EMBED_ONE && !entry.isComposition() && !associationClass) {
+                String field = entry.getModelClass().getName().toLowerCase();
+                LinkedHashMap<String, Object> keys = new LinkedHashMap<>();
+                keys.put(field + "." + field, 1);
+                keys.put("_id", 1);
+                advice.addShardKey(new CollectionAdvice.ShardKey(keys,
+                        "keeps the documents referring to one " + entry.getModelClass().getName() + " on the same shard"));
+            }
+        }
+        LinkedHashMap<String, Object> hashed = new LinkedHashMap<>();
+        hashed.put("_id", "hashed");
+        advice.addShardKey(new CollectionAdvice.ShardKey(hashed, "spreads inserts and lookups by ID evenly"));
+    }
+
+    private void addReference(CollectionAdvice advice, CollectionPlan.Entry entry, String field, String key, boolean multikey) {
+        ModelClass idClass = entry.getSuperClass() != null ? entry.getSuperClass() : entry.getModelClass();
+        String references = idClass.getName().toLowerCase() + "ID";
+        String reason = multikey ? "finds the documents whose " + field + " contain a " + entry.getModelClass().getName()
+                : "finds the documents referring to a " + entry.getModelClass().getName();
+        if (entry.isComposition()) {
+            references += "_" + advice.getName();
+            reason = "finds the composited " + entry.getModelClass().getName() + " stored in " + references;
+        }
+        LinkedHashMap<String, Object> keys = new LinkedHashMap<>();
+        keys.put(key, 1);
+        advice.addIndex(new CollectionAdvice.Index(keys, false, multikey, references, reason));
+    }
+
+    private void addGrowth(CollectionAdvice advice, CollectionPlan.Entry entry, long object, long base) {
+        String field = entry.getModelClass().getName().toLowerCase() + "s";
+        int upper = AssociationEndKind.upperBound(entry.getMultiplicity());
+        boolean unbounded = upper == AssociationEndKind.UNBOUNDED || upper < 0;
+        long maxElements = maxElements(DOCUMENT_LIMIT - base, object);
+        advice.addArray(new CollectionAdvice.Growth(field, entry.getMultiplicity(), object, maxElements, unbounded));
+        if (unbounded) {
+            advice.addFlag(new CollectionAdvice.Flag(CollectionAdvice.FlagKind.UNBOUNDED_EMBED, field,
+                    "multiplicity " + (entry.getMultiplicity() != null ? entry.getMultiplicity() : "unknown") + " of "
+                            + entry.getModelClass().getName() + ": the array has no upper bound, every added element rewrites the document and about "
+                            + maxElements + " elements fit into " + DOCUMENT_LIMIT + " bytes"));
+        } else if (upper > maxElements) {
+            advice.addFlag(new CollectionAdvice.Flag(CollectionAdvice.FlagKind.DOCUMENT_LIMIT, field,
+                    upper + " elements of " + entry.getModelClass().getName() + " do not fit into " + DOCUMENT_LIMIT + " bytes, about " + maxElements + " do"));
+        }
+    }
+
+    /**
+     * Flags the classes whose attributes are copied into several collections of a diagram: every change of such an
+     * object has to be written to each copy.
+     */
+    private void flagCopies(LinkedHashMap<String, CollectionAdvice> advice, LinkedHashMap<String, ArrayList<CollectionPlan.Entry>> entries) {
+        LinkedHashMap<String, LinkedHashMap<String, String>> copies = new LinkedHashMap<>();
+        for (Map.Entry<String, CollectionAdvice> collection : advice.entrySet()) {
+            for (CollectionPlan.Entry entry : entries.get(collection.getKey())) {
+                if (entry.getKind() == CollectionPlan.EntryKind.ATTRIBUTES || entry.isComposition())
+                    continue;
+                String key = collection.getValue().getDiagramName() + "/" + entry.getModelClass().getName();
+                LinkedHashMap<String, String> collections = copies.get(key);
+                if (collections == null) {
+                    collections = new LinkedHashMap<>();
+                    copies.put(key, collections);
+                }
+                if (!collections.containsKey(collection.getValue().getName()))
+                    collections.put(collection.getValue().getName(), getFieldName(entry));
+            }
+        }
+        for (Map.Entry<String, LinkedHashMap<String, String>> copy : copies.entrySet()) {
+            LinkedHashMap<String, String> collections = copy.getValue();
+            if (collections.size() < 2)
+                continue;
+            String diagramName = copy.getKey().substring(0, copy.getKey().lastIndexOf('/'));
+            String className = copy.getKey().substring(copy.getKey().lastIndexOf('/') + 1);
+            String detail = className + " is copied into " + collections.size() + " collections (" + String.join(", ", collections.keySet())
+                    + "): updating one " + className + " rewrites a document in each";
+            for (Map.Entry<String, String> collection : collections.entrySet())
+                advice.get(diagramName + "/" + collection.getKey()).addFlag(new CollectionAdvice.Flag(CollectionAdvice.FlagKind.WRITE_AMPLIFICATION, collection.getValue(), detail));
+        }
+    }
+
+    private long embeddedBytes(CollectionPlan.Entry entry, String collectionName) {
+        ModelClass idClass = entry.getSuperClass() != null ? entry.getSuperClass() : entry.getModelClass();
+        String reference = idClass.getName().toLowerCase() + (entry.isComposition() ? "ID_" + collectionName : "ID");
+        long bytes = 4 + element(entry.getModelClass().getName().toLowerCase()) + stringBytes(reference) + 1;
+        if (entry.getSuperClass() != null)
+            bytes += attributeBytes(entry.getSuperClass());
+        return bytes + attributeBytes(entry.getModelClass());
+    }
+
+    private int countEmbedded(CollectionPlan.Entry entry) {
+        int count = 1 + countAttributes(entry.getModelClass());
+        return entry.getSuperClass() != null ? count + countAttributes(entry.getSuperClass()) : count;
+    }
+
+    private long attributeBytes(ModelClass iClass) {
+        long bytes = 0;
+        for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+            if (!attribute.isID())
+                bytes += element(attribute.getName()) + valueBytes(attribute);
+        }
+        return bytes;
+    }
+
+    private int countAttributes(ModelClass iClass) {
+        int count = 0;
+        for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+            if (!attribute.isID())
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the size of an attribute value the way it is exported: dates and numbers as 64-bit values, booleans as
+     * one byte and strings with {@value #STRING_BYTES} characters unless the value is fixed.
+     */
+    private static long valueBytes(AttributeCache.ResolvedAttribute attribute) {
+        if (attribute.getTypeName().equals("Date") || attribute.getTypeName().equals("DateTime"))
+            return 8;
+        if (attribute.getValue().equals("someString"))
+            return 4 + STRING_BYTES + 1;
+        if (attribute.getValue().equals("someNumber"))
+            return 8;
+        if (attribute.getValue().equals("someBoolean"))
+            return 1;
+        return stringBytes(attribute.getValue());
+    }
+
+    private static long element(String name) {
+        return 1 + name.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    private static long stringBytes(String value) {
+        return 4 + value.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    /**
+     * Returns the size of {@code elements} array elements of {@code object} bytes each, keyed "0", "1" and so on.
+     */
+    private static long arrayBytes(long elements, long object) {
+        long bytes = elements * (1 + object + 1);
+        for (long digits = 1, from = 0, to = 10; from < elements; digits++, from = to, to *= 10)
+            bytes += digits * (Math.min(to, elements) - from);
+        return bytes;
+    }
+
+    private static long maxElements(long free, long object) {
+        long low = 0;
+        long high = Math.max(0, free / (object + 3));
+        while (low < high) {
+            long middle = (low + high + 1) >>> 1;
+            if (arrayBytes(middle, object) <= free)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    public String getSummary(List<CollectionAdvice> advice) {
+        int indexes = 0;
+        int unbounded = 0;
+        int overLimit = 0;
+        int copies = 0;
+        CollectionAdvice largest = null;
+        StringBuilder flags = new StringBuilder();
+        for (CollectionAdvice collection : advice) {
+            indexes += collection.getIndexes().size();
+            if (largest == null || collection.getProjectedBytes() > largest.getProjectedBytes())
+                largest = collection;
+            for (CollectionAdvice.Flag flag : collection.getFlags()) {
+                if (flag.getKind() == CollectionAdvice.FlagKind.UNBOUNDED_EMBED)
+                    unbounded++;
+                else if (flag.getKind() == CollectionAdvice.FlagKind.DOCUMENT_LIMIT)
+                    overLimit++;
+                else
+                    copies++;
+                flags.append("\n\t").append(collection.getDiagramName()).append('/').append(collection.getName());
+                if (flag.getField() != null)
+                    flags.append('.').append(flag.getField());
+                flags.append(": ").append(flag.getDetail());
+            }
+        }
+        StringBuilder summary = new StringBuilder("Index advisor: ").append(advice.size()).append(" collections, ")
+                .append(indexes).append(" indexes, ").append(unbounded).append(" unbounded embeds, ")
+                .append(overLimit).append(" over the document limit, ").append(copies).append(" copied embeds");
+        if (largest != null)
+            summary.append("\n\tLargest document: ").append(largest.getDiagramName()).append('/').append(largest.getName())
+                    .append(", about ").append(largest.getProjectedBytes()).append(" bytes with ").append(expectedElements).append(" elements per array");
+        return summary.append(flags).toString();
+    }
+
+    public Path write(Path dir, List<CollectionAdvice> advice) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(FILE);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\n\t\"documentLimit\": " + DOCUMENT_LIMIT);
+            writer.write(",\n\t\"expectedElements\": " + expectedElements);
+            writer.write(",\n\t\"collections\": [");
+            for (int i = 0; i < advice.size(); i++) {
+                CollectionAdvice collection = advice.get(i);
+                writer.write(i > 0 ? ",\n" : "\n");
+                writer.write("\t\t{\n\t\t\t\"diagram\": " + JsonStrings.quote(collection.getDiagramName()));
+                writer.write(",\n\t\t\t\"collection\": " + JsonStrings.quote(collection.getName()));
+                writer.write(",\n\t\t\t\"owner\": " + JsonStrings.quote(collection.getOwner()));
+                writer.write(",\n\t\t\t\"partOf\": " + JsonStrings.quote(collection.getWhole()));
+                writer.write(",\n\t\t\t\"attributes\": " + collection.getAttributes());
+                writer.write(",\n\t\t\t\"depth\": " + collection.getDepth());
+                writer.write(",\n\t\t\t\"estimatedBytes\": " + collection.getEstimatedBytes());
+                writer.write(",\n\t\t\t\"projectedBytes\": " + collection.getProjectedBytes());
+                writer.write(",\n\t\t\t\"indexes\": [");
+                for (int j = 0; j < collection.getIndexes().size(); j++) {
+                    CollectionAdvice.Index index = collection.getIndexes().get(j);
+                    writer.write(j > 0 ? ",\n" : "\n");
+                    writer.write("\t\t\t\t{\"name\": " + JsonStrings.quote(index.getName()) + ", \"key\": " + keys(index.getKeys())
+                            + ", \"unique\": " + index.isUnique() + ", \"multikey\": " + index.isMultikey()
+                            + ", \"references\": " + JsonStrings.quote(index.getReferences()) + ", \"reason\": " + JsonStrings.quote(index.getReason()) + "}");
+                }
+                writer.write(collection.getIndexes().isEmpty() ? "]" : "\n\t\t\t]");
+                writer.write(",\n\t\t\t\"arrays\": [");
+                for (int j = 0; j < collection.getArrays().size(); j++) {
+                    CollectionAdvice.Growth growth = collection.getArrays().get(j);
+                    writer.write(j > 0 ? ",\n" : "\n");
+                    writer.write("\t\t\t\t{\"field\": " + JsonStrings.quote(growth.getField()) + ", \"multiplicity\": " + JsonStrings.quote(growth.getMultiplicity())
+                            + ", \"unbounded\": " + growth.isUnbounded() + ", \"elementBytes\": " + growth.getElementBytes()
+                            + ", \"maxElements\": " + growth.getMaxElements() + "}");
+                }
+                writer.write(collection.getArrays().isEmpty() ? "]" : "\n\t\t\t]");
+                writer.write(",\n\t\t\t\"flags\": [");
+                for (int j = 0; j < collection.getFlags().size(); j++) {
+                    CollectionAdvice.Flag flag = collection.getFlags().get(j);
+                    writer.write(j > 0 ? ",\n" : "\n");
+                    writer.write("\t\t\t\t{\"type\": " + JsonStrings.quote(flag.getKind().name()) + ", \"field\": " + JsonStrings.quote(flag.getField())
+                            + ", \"detail\": " + JsonStrings.quote(flag.getDetail()) + "}");
+                }
+                writer.write(collection.getFlags().isEmpty() ? "]" : "\n\t\t\t]");
+                writer.write(",\n\t\t\t\"shardKeys\": [");
+                for (int j = 0; j < collection.getShardKeys().size(); j++) {
+                    CollectionAdvice.ShardKey shardKey = collection.getShardKeys().get(j);
+                    writer.write(j > 0 ? ",\n" : "\n");
+                    writer.write("\t\t\t\t{\"key\": " + keys(shardKey.getKeys()) + ", \"reason\": " + JsonStrings.quote(shardKey.getReason()) + "}");
+                }
+                writer.write(collection.getShardKeys().isEmpty() ? "]" : "\n\t\t\t]");
+                writer.write("\n\t\t}");
+            }
+            writer.write("\n\t]\n}\n");
+        }
+        return file;
+    }
+
+    private static String getFieldName(CollectionPlan.Entry entry) {
+        String field = entry.getModelClass().getName().toLowerCase();
+        return entry.getKind() == CollectionPlan.EntryKind.EMBED_MANY ? field + "s" : field;
+    }
+
+    private static String keys(Map<String, Object> keys) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if (json.length() > 1)
+                json.append(", ");
+            json.append(JsonStrings.quote(key.getKey())).append(": ");
+            json.append(key.getValue() instanceof String ? JsonStrings.quote((String) key.getValue()) : String.valueOf(key.getValue()));
+        }
+        return json.append('}').toString();
+    }
+}
@@ -0,0 +1,357 @@
+package umltonosqlplugin.batch;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.MessageSink;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.memory.MemoryProject;
+import umltonosqlplugin.model.xmi.XmiModelReader;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command-line transformation of XMI exports, for machines without Visual Paradigm. Every file is read by an
+ * {@link XmiModelReader} and transformed by a {@link ProjectTransformation} into its own folder of the output
+ * directory, named after the file; files are transformed concurrently on a fixed number of threads.
+ * <p>
+ * One line is printed per file as it completes, then a summary. The exit status is {@value #EXIT_SUCCESS} when
+ * every file was transformed, {@value #EXIT_FAILURE} when any file could not be read or written, and
+ * {@value #EXIT_USAGE} when the arguments are wrong.
+ */
+public class BatchTransformation {
+
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final String[] EXTENSIONS = {".xmi", ".uml", ".xml"};
+
+    private static final String USAGE = "Usage: java -jar umltonosql.jar"
+            + " [--threads <count>] [--incremental] [--verbose] --out <directory> <file or directory>...\n"
+            + "Transforms XMI exports of UML class diagrams; directories are searched for *.xmi, *.uml and *.xml files.";
+
+    private final Path outputDir;
+    private final int threads;
+    private final boolean incremental;
+    private final MessageSink sink;
+    private final LogLevel level;
+
+    /**
+     * The log of every file goes to {@code sink}, each line prefixed with the file name; with a {@code null} sink
+     * only the results are kept.
+     */
+    public BatchTransformation(Path outputDir, int threads, boolean incremental, MessageSink sink, LogLevel level) {
+        if (threads < 1)
+            throw new IllegalArgumentException("thread count must be positive: " + threads);
+        this.outputDir = outputDir;
+        this.threads = threads;
+        this.incremental = incremental;
+        this.sink = sink;
+        this.level = level;
+    }
+
+    public static void main(String[] args) {
+        System.exit(execute(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the command with {@code args} and returns its exit status.
+     */
+    public static int execute(String[] args, final PrintStream out, PrintStream err) {
+        Path outputDir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean incremental = false;
+        boolean verbose = false;
+        ArrayList<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--out":
+                        outputDir = Paths.get(value(args, ++i));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value(args, ++i));
+                        break;
+                    case "--incremental":
+                        incremental = true;
+                        break;
+                    case "--verbose":
+                        verbose = true;
+                        break;
+                    case "--help":
+                        out.println(USAGE);
+                        return EXIT_SUCCESS;
+                    default:
+                        if (args[i].startsWith("--"))
+                            throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        inputs.add(Paths.get(args[i]));
+                }
+            }
+            if (outputDir == null)
+                throw new IllegalArgumentException("No output directory given");
+            if (inputs.isEmpty())
+                throw new IllegalArgumentException("No input files given");
+            if (threads < 1)
+                throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        List<Path> files;
+        try {
+            files = findFiles(inputs);
+        } catch (IOException e) {
+            err.println("Cannot list input files: " + e);
+            return EXIT_FAILURE;
+        }
+        if (files.isEmpty()) {
+            err.println("No XMI files found");
+            return EXIT_FAILURE;
+        }
+        MessageSink sink = verbose ? new MessageSink() {
+            @Override
+            public void showMessage(String text) {
+                out.println(text);
+            }
+        } : null;
+        BatchTransformation batch = new BatchTransformation(outputDir, Math.min(threads, files.size()), incremental, sink,
+                LogLevel.parse(System.getProperty("umltonosql.log.level"), LogLevel.SUMMARY));
+        long started = System.nanoTime();
+        List<Result> results = batch.run(files, new ResultListener() {
+            @Override
+            public void completed(Result result) {
+                out.println(result);
+            }
+        });
+        int failed = 0;
+        for (Result result : results) {
+            if (!result.isSuccess())
+                failed++;
+        }
+        out.println("Transformed " + results.size() + " files in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+                + " ms: " + (results.size() - failed) + " succeeded, " + failed + " failed");
+        return failed == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        return args[i];
+    }
+
+    /**
+     * Returns the given files and the XMI files under the given directories, each directory sorted by path.
+     */
+    public static List<Path> findFiles(List<Path> inputs) throws IOException {
+        ArrayList<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (!Files.isDirectory(input)) {
+                files.add(input);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(input)) {
+                files.addAll(walk.filter(path -> Files.isRegularFile(path) && isXmiFile(path)).sorted().collect(Collectors.toList()));
+            }
+        }
+        return files;
+    }
+
+    private static boolean isXmiFile(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : EXTENSIONS) {
+            if (name.endsWith(extension))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Transforms {@code files} and returns their results in the same order; {@code listener} is told of every result
+     * as soon as it is known, on the calling thread.
+     */
+    public List<Result> run(List<Path> files, ResultListener listener) {
+        List<Path> targets = assignFolders(files);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "umltonosql-batch-" + ++count);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+            ArrayList<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                final Path file = files.get(i);
+                final Path target = targets.get(i);
+                futures.add(completion.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        return transform(file, target);
+                    }
+                }));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                Result result = take(completion);
+                if (listener != null && result != null)
+                    listener.completed(result);
+            }
+            ArrayList<Result> results = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++)
+                results.add(get(futures.get(i), files.get(i), targets.get(i)));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Result take(CompletionService<Result> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static Result get(Future<Result> future, Path file, Path target) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            return Result.failed(file, target, String.valueOf(e.getCause()), 0);
+        }
+    }
+
+    /**
+     * Gives every file a folder named after it; files of the same name get a numbered suffix, in input order.
+     */
+    private List<Path> assignFolders(List<Path> files) {
+        ArrayList<Path> targets = new ArrayList<>();
+        HashSet<String> used = new HashSet<>();
+        for (Path file : files) {
+            String stem = getStem(file);
+            String folder = stem;
+            for (int suffix = 2; !used.add(folder.toLowerCase(Locale.ROOT)); suffix++)
+                folder = stem + "-" + suffix;
+            targets.add(outputDir.resolve(folder));
+        }
+        return targets;
+    }
+
+    private static String getStem(Path file) {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    private Result transform(Path file, Path target) {
+        long started = System.nanoTime();
+        final String prefix = "[" + file.getFileName() + "] ";
+        TransformationLog log = new TransformationLog(new MessageSink() {
+            @Override
+            public void showMessage(String text) {
+                if (sink != null)
+                    sink.showMessage(prefix + text.replace("\n", "\n" + prefix));
+            }
+        }, level);
+        try {
+            MemoryProject project = new XmiModelReader().read(file);
+            Files.createDirectories(target);
+            ProjectTransformation transformation = new ProjectTransformation(project, target.toString(), incremental, log);
+            transformation.run();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (transformation.getErrorCount() > 0)
+                return Result.failed(file, target, transformation.getErrorCount() + " files could not be written or deleted", millis);
+            return new Result(file, target, true, null, transformation.getDiagramCount(),
+                    transformation.getMetrics().getTotals().getFilesCreated(), millis);
+        } catch (IOException | RuntimeException e) {
+            return Result.failed(file, target, e.toString(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            log.close();
+        }
+    }
+
+    public interface ResultListener {
+
+        void completed(Result result);
+    }
+
+    public static class Result {
+
+        private final Path file;
+        private final Path outputDir;
+        private final boolean success;
+        private final String error;
+        private final int diagrams;
+        private final long filesCreated;
+        private final long elapsedMillis;
+
+        Result(Path file, Path outputDir, boolean success, String error, int diagrams, long filesCreated, long elapsedMillis) {
+            this.file = file;
+            this.outputDir = outputDir;
+            this.success = success;
+            this.error = error;
+            this.diagrams = diagrams;
+            this.filesCreated = filesCreated;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        static Result failed(Path file, Path outputDir, String error, long elapsedMillis) {
+            return new Result(file, outputDir, false, error, 0, 0, elapsedMillis);
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public Path getOutputDir() {
+            return outputDir;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Returns why the file failed, or {@code null}.
+         */
+        public String getError() {
+            return error;
+        }
+
+        public int getDiagrams() {
+            return diagrams;
+        }
+
+        public long getFilesCreated() {
+            return filesCreated;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            if (!success)
+                return "FAILED " + file + ": " + error;
+            return "OK     " + file + " -> " + outputDir + " (" + diagrams + " diagrams, " + filesCreated + " files, " + elapsedMillis + " ms)";
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package umltonosqlplugin.export;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+
+/**
+ * Writes documents as consecutive BSON documents, the format of the {@code .bson} files read by
+ * {@code mongorestore}. Each document is encoded into a reused buffer and its lengths are filled in once it is complete.
+ */
+public class BsonEncoder implements DocumentEncoder {
+
+    private static final int TYPE_STRING = 0x02;
+    private static final int TYPE_DOCUMENT = 0x03;
+    private static final int TYPE_ARRAY = 0x04;
+    private static final int TYPE_BOOLEAN = 0x08;
+    private static final int TYPE_DATE = 0x09;
+    private static final int TYPE_INT64 = 0x12;
+
+    private final ChannelSink sink;
+    private final DocumentBuffer document;
+    private final ArrayDeque<Level> levels;
+
+    public BsonEncoder(Path file) throws IOException {
+        sink = new ChannelSink(file);
+        document = new DocumentBuffer();
+        levels = new ArrayDeque<>();
+    }
+
+    @Override
+    public void startDocument() {
+        document.reset();
+        levels.clear();
+        open(false);
+    }
+
+    @Override
+    public void writeString(String name, String value) {
+        element(TYPE_STRING, name);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        document.putIntLittleEndian(bytes.length + 1);
+        document.put(bytes);
+        document.put(0);
+    }
+
+    @Override
+    public void writeLong(String name, long value) {
+        element(TYPE_INT64, name);
+        document.putLongLittleEndian(value);
+    }
+
+    @Override
+    public void writeBoolean(String name, boolean value) {
+        element(TYPE_BOOLEAN, name);
+        document.put(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeDate(String name, long millis) {
+        element(TYPE_DATE, name);
+        document.putLongLittleEndian(millis);
+    }
+
+    @Override
+    public void startObject(String name) {
+        element(TYPE_DOCUMENT, name);
+        open(false);
+    }
+
+    @Override
+    public void endObject() {
+        close(levels.pop());
+    }
+
+    @Override
+    public void startArray(String name) {
+        element(TYPE_ARRAY, name);
+        open(true);
+    }
+
+    @Override
+    public void endArray() {
+        close(levels.pop());
+    }
+
+    @Override
+    public void endDocument() throws IOException {
+        close(levels.pop());
+        document.writeTo(sink);
+    }
+
+    @Override
+    public long getWritten() {
+        return sink.getWritten();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sink.close();
+    }
+
+    private void open(boolean array) {
+        levels.push(new Level(document.size(), array));
+        document.putIntLittleEndian(0);
+    }
+
+    private void close(Level level) {
+        document.put(0);
+        document.setIntLittleEndian(level.start, document.size() - level.start);
+    }
+
+    private void element(int type, String name) {
+        document.put(type);
+        Level level = levels.peek();
+        document.putUtf8(level.array ? Integer.toString(level.index++) : name);
+        document.put(0);
+    }
+
+    private static class Level {
+
+        private final int start;
+        private final boolean array;
+        private int index;
+
+        private Level(int start, boolean array) {
+            this.start = start;
+            this.array = array;
+        }
+    }
+}
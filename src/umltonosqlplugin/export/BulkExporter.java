@@ -0,0 +1,119 @@
+package umltonosqlplugin.export;
+
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.output.JsonStrings;
+import umltonosqlplugin.transformation.AttributeCache;
+import umltonosqlplugin.transformation.CollectionPlan;
+import umltonosqlplugin.transformation.DiagramPlan;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Exports the planned documents of every diagram as bulk-load files: {@code <diagram name>/<collection>.ndjson} for
+ * {@code mongoimport} and, optionally, {@code <diagram name>/<collection>.bson} for {@code mongorestore}. The
+ * documents have the same members as the generated {@code .json} files. {@value #MANIFEST} in the export directory
+ * lists every collection with its files and their sizes.
+ */
+public class BulkExporter {
+
+    public static final String MANIFEST = "export-manifest.json";
+
+    private final AttributeCache attributeCache;
+    private final EnumSet<ExportFormat> formats;
+
+    public BulkExporter(AttributeCache attributeCache, Set<ExportFormat> formats) {
+        this.attributeCache = attributeCache;
+        this.formats = EnumSet.copyOf(formats);
+    }
+
+    public List<ExportedCollection> export(String pathToDir, List<DiagramPlan> plans) throws IOException {
+        ArrayList<ExportedCollection> result = new ArrayList<>();
+        for (ExportTarget target : ExportTarget.collect(pathToDir, plans)) {
+            ExportedCollection exported = new ExportedCollection(target.getDiagramName(), target.getName());
+            for (ExportFormat format : formats) {
+                Path file = target.getFile(format);
+                try (DocumentEncoder encoder = format.open(file)) {
+                    for (CollectionPlan collection : target.getCollections())
+                        writeDocument(encoder, collection, target.getName());
+                }
+                exported.addFile(format, file);
+            }
+            exported.addDocuments(target.getCollections().size());
+            result.add(exported);
+        }
+        writeManifest(Paths.get(pathToDir), result);
+        return result;
+    }
+
+    private void writeDocument(DocumentEncoder encoder, CollectionPlan collection, String collectionName) throws IOException {
+        encoder.startDocument();
+        for (CollectionPlan.Entry entry : collection.getEntries()) {
+            String fieldName = entry.getModelClass().getName().toLowerCase();
+            switch (entry.getKind()) {
+                case ATTRIBUTES:
+                    writeAttributes(encoder, entry.getModelClass());
+                    break;
+                case EMBED_ONE:
+                    encoder.startObject(fieldName);
+                    writeEmbedded(encoder, entry, collectionName);
+                    encoder.endObject();
+                    break;
+                case EMBED_MANY:
+                    encoder.startArray(fieldName + "s");
+                    encoder.startObject(null);
+                    writeEmbedded(encoder, entry, collectionName);
+                    encoder.endObject();
+                    encoder.endArray();
+                    break;
+            }
+        }
+        encoder.endDocument();
+    }
+
+    private void writeEmbedded(DocumentEncoder encoder, CollectionPlan.Entry entry, String collectionName) {
+        ModelClass iClass = entry.getModelClass();
+        ModelClass idClass = entry.getSuperClass() != null ? entry.getSuperClass() : iClass;
+        String id = idClass.getName().toLowerCase() + "ID";
+        encoder.writeString(iClass.getName().toLowerCase(), entry.isComposition() ? id + "_" + collectionName : id);
+        if (entry.getSuperClass() != null)
+            writeAttributes(encoder, entry.getSuperClass());
+        writeAttributes(encoder, iClass);
+    }
+
+    private void writeAttributes(DocumentEncoder encoder, ModelClass iClass) {
+        for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+            if (!attribute.isID())
+                encoder.writeString(attribute.getName(), attribute.getValue());
+        }
+    }
+
+    static void writeManifest(Path dir, List<ExportedCollection> collections) throws IOException {
+        Files.createDirectories(dir);
+        try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            writer.write("{\n\t\"collections\": [");
+            for (int i = 0; i < collections.size(); i++) {
+                ExportedCollection collection = collections.get(i);
+                writer.write(i > 0 ? ",\n" : "\n");
+                writer.write("\t\t{\n\t\t\t\"diagram\": " + JsonStrings.quote(collection.getDiagramName()));
+                writer.write(",\n\t\t\t\"collection\": " + JsonStrings.quote(collection.getName()));
+                writer.write(",\n\t\t\t\"documents\": " + collection.getDocuments());
+                writer.write(",\n\t\t\t\"files\": [");
+                int file = 0;
+                for (Map.Entry<ExportFormat, Path> entry : collection.getFiles().entrySet()) {
+                    writer.write(file++ > 0 ? ",\n" : "\n");
+                    writer.write("\t\t\t\t{\"format\": " + JsonStrings.quote(entry.getKey().getExtension())
+                            + ", \"file\": " + JsonStrings.quote(dir.toAbsolutePath().relativize(entry.getValue().toAbsolutePath()).toString().replace('\\', '/'))
+                            + ", \"bytes\": " + Files.size(entry.getValue()) + "}");
+                }
+                writer.write("\n\t\t\t]\n\t\t}");
+            }
+            writer.write("\n\t]\n}\n");
+        }
+    }
+}
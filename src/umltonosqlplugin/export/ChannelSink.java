@@ -0,0 +1,66 @@
+package umltonosqlplugin.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * Buffered writes to a file channel. Encoded documents are copied into a direct buffer, which goes to the channel
+ * whenever it fills up and when the sink is closed. Direct buffers are not freed until they are garbage collected, so
+ * a closed sink hands its buffer back to the sinks its thread opens next.
+ */
+final class ChannelSink implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ArrayDeque<ByteBuffer>> BUFFERS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long written;
+
+    ChannelSink(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer free = BUFFERS.get().pollFirst();
+        buffer = free != null ? free : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    void write(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining())
+                drain();
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        written += length;
+    }
+
+    long getWritten() {
+        return written;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen())
+            return;
+        try {
+            drain();
+        } finally {
+            buffer.clear();
+            BUFFERS.get().addFirst(buffer);
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package umltonosqlplugin.export;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte array holding the document being encoded. It is reused for every document of a file, so memory
+ * stays bounded by the largest document rather than by the file.
+ */
+final class DocumentBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    DocumentBuffer() {
+        bytes = new byte[1024];
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void put(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    void put(byte[] values) {
+        ensure(values.length);
+        System.arraycopy(values, 0, bytes, size, values.length);
+        size += values.length;
+    }
+
+    void putUtf8(String value) {
+        put(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void putIntLittleEndian(int value) {
+        ensure(4);
+        setIntLittleEndian(size, value);
+        size += 4;
+    }
+
+    void putLongLittleEndian(long value) {
+        putIntLittleEndian((int) value);
+        putIntLittleEndian((int) (value >>> 32));
+    }
+
+    void setIntLittleEndian(int position, int value) {
+        bytes[position] = (byte) value;
+        bytes[position + 1] = (byte) (value >>> 8);
+        bytes[position + 2] = (byte) (value >>> 16);
+        bytes[position + 3] = (byte) (value >>> 24);
+    }
+
+    void writeTo(ChannelSink sink) throws IOException {
+        sink.write(bytes, size);
+    }
+
+    private void ensure(int additional) {
+        if (size + additional > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+    }
+}
@@ -0,0 +1,41 @@
+package umltonosqlplugin.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streaming encoder of documents into one file. Members inside an array are written with a {@code null} name.
+ */
+public interface DocumentEncoder extends Closeable {
+
+    void startDocument();
+
+    void writeString(String name, String value);
+
+    void writeLong(String name, long value);
+
+    void writeBoolean(String name, boolean value);
+
+    /**
+     * Writes a date given in milliseconds since the epoch.
+     */
+    void writeDate(String name, long millis);
+
+    void startObject(String name);
+
+    void endObject();
+
+    void startArray(String name);
+
+    void endArray();
+
+    /**
+     * Completes the document and hands it to the file.
+     */
+    void endDocument() throws IOException;
+
+    /**
+     * Returns the bytes written to the file by this encoder so far.
+     */
+    long getWritten();
+}
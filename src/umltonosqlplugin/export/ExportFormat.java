@@ -0,0 +1,24 @@
+package umltonosqlplugin.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public enum ExportFormat {
+
+    NDJSON("ndjson"),
+    BSON("bson");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public DocumentEncoder open(Path file) throws IOException {
+        return this == BSON ? new BsonEncoder(file) : new JsonLinesEncoder(file);
+    }
+}
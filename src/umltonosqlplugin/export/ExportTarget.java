@@ -0,0 +1,72 @@
+package umltonosqlplugin.export;
+
+import umltonosqlplugin.transformation.CollectionPlan;
+import umltonosqlplugin.transformation.DiagramPlan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The planned collections exported to the same files: those of one collection name in the diagrams of one name, in
+ * plan order. Each target is written in one pass, so no export file is opened twice in a run.
+ */
+final class ExportTarget {
+
+    private final Path diagramDir;
+    private final String diagramName;
+    private final String name;
+    private final ArrayList<CollectionPlan> collections;
+
+    private ExportTarget(Path diagramDir, String diagramName, String name) {
+        this.diagramDir = diagramDir;
+        this.diagramName = diagramName;
+        this.name = name;
+        collections = new ArrayList<>();
+    }
+
+    /**
+     * Groups the collections that survive the plans by export file and creates the diagram directories.
+     */
+    static Collection<ExportTarget> collect(String pathToDir, List<DiagramPlan> plans) throws IOException {
+        LinkedHashMap<Path, ExportTarget> targets = new LinkedHashMap<>();
+        for (DiagramPlan plan : plans) {
+            Path diagramDir = Paths.get(pathToDir + "/" + plan.getDiagramName());
+            Files.createDirectories(diagramDir);
+            for (CollectionPlan collection : plan.getCollections()) {
+                if (collection.isDropped())
+                    continue;
+                String name = collection.getCollectionName();
+                Path key = diagramDir.resolve(name);
+                ExportTarget target = targets.get(key);
+                if (target == null) {
+                    target = new ExportTarget(diagramDir, plan.getDiagramName(), name);
+                    targets.put(key, target);
+                }
+                target.collections.add(collection);
+            }
+        }
+        return targets.values();
+    }
+
+    String getDiagramName() {
+        return diagramName;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<CollectionPlan> getCollections() {
+        return collections;
+    }
+
+    Path getFile(ExportFormat format) {
+        return diagramDir.resolve(name + "." + format.getExtension());
+    }
+}
@@ -0,0 +1,47 @@
+package umltonosqlplugin.export;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A collection written by a {@link BulkExporter}: its files, one per format, and the number of documents in them.
+ */
+public class ExportedCollection {
+
+    private final String diagramName;
+    private final String name;
+    private final EnumMap<ExportFormat, Path> files;
+    private long documents;
+
+    ExportedCollection(String diagramName, String name) {
+        this.diagramName = diagramName;
+        this.name = name;
+        files = new EnumMap<>(ExportFormat.class);
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<ExportFormat, Path> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    void addFile(ExportFormat format, Path file) {
+        files.put(format, file);
+    }
+
+    void addDocuments(long count) {
+        documents += count;
+    }
+}
@@ -0,0 +1,130 @@
+package umltonosqlplugin.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+
+/**
+ * Writes documents as newline-delimited JSON, one compact document per line, as read by {@code mongoimport}.
+ * Dates are written in MongoDB extended JSON, {@code {"$date": "<ISO-8601>"}}.
+ */
+public class JsonLinesEncoder implements DocumentEncoder {
+
+    private final ChannelSink sink;
+    private final DocumentBuffer document;
+    private final BitSet started;
+    private int depth;
+
+    public JsonLinesEncoder(Path file) throws IOException {
+        sink = new ChannelSink(file);
+        document = new DocumentBuffer();
+        started = new BitSet();
+    }
+
+    @Override
+    public void startDocument() {
+        document.reset();
+        depth = 0;
+        started.clear();
+        document.put('{');
+    }
+
+    @Override
+    public void writeString(String name, String value) {
+        member(name);
+        putString(value);
+    }
+
+    @Override
+    public void writeLong(String name, long value) {
+        member(name);
+        document.putUtf8(Long.toString(value));
+    }
+
+    @Override
+    public void writeBoolean(String name, boolean value) {
+        member(name);
+        document.putUtf8(value ? "true" : "false");
+    }
+
+    @Override
+    public void writeDate(String name, long millis) {
+        startObject(name);
+        writeString("$date", Instant.ofEpochMilli(millis).toString());
+        endObject();
+    }
+
+    @Override
+    public void startObject(String name) {
+        member(name);
+        document.put('{');
+        started.clear(++depth);
+    }
+
+    @Override
+    public void endObject() {
+        depth--;
+        document.put('}');
+    }
+
+    @Override
+    public void startArray(String name) {
+        member(name);
+        document.put('[');
+        started.clear(++depth);
+    }
+
+    @Override
+    public void endArray() {
+        depth--;
+        document.put(']');
+    }
+
+    @Override
+    public void endDocument() throws IOException {
+        document.put('}');
+        document.put('\n');
+        document.writeTo(sink);
+    }
+
+    @Override
+    public long getWritten() {
+        return sink.getWritten();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sink.close();
+    }
+
+    private void member(String name) {
+        if (started.get(depth))
+            document.put(',');
+        started.set(depth);
+        if (name != null) {
+            putString(name);
+            document.put(':');
+        }
+    }
+
+    private void putString(String value) {
+        document.put('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                document.putUtf8(value.substring(from, i));
+                if (c == '"' || c == '\\') {
+                    document.put('\\');
+                    document.put(c);
+                } else {
+                    document.putUtf8(String.format("\\u%04x", (int) c));
+                }
+                from = i + 1;
+            }
+        }
+        document.putUtf8(value.substring(from));
+        document.put('"');
+    }
+}
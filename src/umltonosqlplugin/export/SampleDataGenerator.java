@@ -0,0 +1,389 @@
+package umltonosqlplugin.export;
+
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.transformation.AttributeCache;
+import umltonosqlplugin.transformation.CollectionPlan;
+import umltonosqlplugin.transformation.DiagramPlan;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates sample documents for the planned collections, for load-testing the schema. Every collection gets
+ * {@link #documents(long)} documents with an {@code _id} of {@code <collection>-<n>}, values following the attribute
+ * types and arrays of {@link #fanOut(int, int)} embedded documents. References point at {@code _id}s that exist in the
+ * referenced collection. A composited collection gets enough documents for every whole to reference parts of its own,
+ * one per whole of a one-to-one composition and up to the maximum fan-out otherwise, so no part belongs to two wholes.
+ * Values come from a random generator per collection seeded from {@link #seed(long)}, so the output is
+ * the same for every run and thread count. Collections are generated in parallel and streamed to disk one document at a time.
+ */
+public class SampleDataGenerator {
+
+    public static final String DOCUMENTS_PROPERTY = "umltonosql.sample.documents";
+    public static final String FAN_OUT_PROPERTY = "umltonosql.sample.fanout";
+    public static final String SEED_PROPERTY = "umltonosql.sample.seed";
+    public static final String THREADS_PROPERTY = "umltonosql.sample.threads";
+
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+    private static final long DATE_ORIGIN = 1577836800000L;
+    private static final long DATE_RANGE = 5L * 365 * 24 * 60 * 60 * 1000;
+    private static final long NUMBER_RANGE = 1000000;
+    private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private final AttributeCache attributeCache;
+    private EnumSet<ExportFormat> formats;
+    private long documents;
+    private int minFanOut;
+    private int maxFanOut;
+    private long seed;
+    private int threads;
+
+    public SampleDataGenerator(AttributeCache attributeCache) {
+        this.attributeCache = attributeCache;
+        formats = EnumSet.of(ExportFormat.NDJSON);
+        documents = 1000;
+        minFanOut = 1;
+        maxFanOut = 5;
+        seed = 1;
+        threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Creates a generator configured by {@value #DOCUMENTS_PROPERTY}, {@value #FAN_OUT_PROPERTY} (a count or a
+     * {@code min..max} range), {@value #SEED_PROPERTY} and {@value #THREADS_PROPERTY}.
+     */
+    public static SampleDataGenerator fromSystemProperties(AttributeCache attributeCache) {
+        SampleDataGenerator generator = new SampleDataGenerator(attributeCache);
+        generator.documents(Long.getLong(DOCUMENTS_PROPERTY, generator.documents));
+        generator.seed(Long.getLong(SEED_PROPERTY, generator.seed));
+        generator.threads(Integer.getInteger(THREADS_PROPERTY, generator.threads));
+        String fanOut = System.getProperty(FAN_OUT_PROPERTY);
+        if (fanOut != null) {
+            int range = fanOut.indexOf("..");
+            if (range < 0)
+                generator.fanOut(Integer.parseInt(fanOut.trim()), Integer.parseInt(fanOut.trim()));
+            else
+                generator.fanOut(Integer.parseInt(fanOut.substring(0, range).trim()), Integer.parseInt(fanOut.substring(range + 2).trim()));
+        }
+        return generator;
+    }
+
+    public SampleDataGenerator formats(Set<ExportFormat> formats) {
+        this.formats = EnumSet.copyOf(formats);
+        return this;
+    }
+
+    public SampleDataGenerator documents(long documents) {
+        if (documents < 1)
+            throw new IllegalArgumentException("documents: " + documents);
+        this.documents = documents;
+        return this;
+    }
+
+    public SampleDataGenerator fanOut(int minFanOut, int maxFanOut) {
+        if (minFanOut < 0 || maxFanOut < minFanOut)
+            throw new IllegalArgumentException("fan-out: " + minFanOut + ".." + maxFanOut);
+        this.minFanOut = minFanOut;
+        this.maxFanOut = maxFanOut;
+        return this;
+    }
+
+    public SampleDataGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SampleDataGenerator threads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public List<ExportedCollection> generate(String pathToDir, List<DiagramPlan> plans) throws IOException {
+        Collection<ExportTarget> targets = ExportTarget.collect(pathToDir, plans);
+        final Map<ExportTarget, Long> counts = countDocuments(targets);
+        ArrayList<ExportedCollection> result = new ArrayList<>();
+        if (!targets.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, targets.size()));
+            try {
+                ArrayList<Future<ExportedCollection>> futures = new ArrayList<>();
+                for (final ExportTarget target : targets) {
+                    futures.add(executor.submit(new Callable<ExportedCollection>() {
+                        @Override
+                        public ExportedCollection call() throws IOException {
+                            return generate(target, counts.get(target));
+                        }
+                    }));
+                }
+                for (Future<ExportedCollection> future : futures)
+                    result.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Sample data generation interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException)
+                    throw (IOException) e.getCause();
+                throw new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        BulkExporter.writeManifest(Paths.get(pathToDir), result);
+        return result;
+    }
+
+    /**
+     * Returns the number of documents generated for each collection plan of every target.
+     */
+    private Map<ExportTarget, Long> countDocuments(Collection<ExportTarget> targets) {
+        HashMap<String, ExportTarget> byName = new HashMap<>();
+        for (ExportTarget target : targets)
+            byName.put(target.getDiagramName() + "/" + target.getName(), target);
+        HashMap<ExportTarget, List<Composition>> wholes = new HashMap<>();
+        for (ExportTarget whole : targets) {
+            for (CollectionPlan collection : whole.getCollections()) {
+                for (CollectionPlan.Entry entry : collection.getEntries()) {
+                    if (!entry.isComposition() || entry.getKind() == CollectionPlan.EntryKind.ATTRIBUTES)
+                        continue;
+                    ExportTarget part = byName.get(whole.getDiagramName() + "/" + getPartCollectionName(entry, whole.getName()));
+                    if (part == null)
+                        continue;
+                    if (!wholes.containsKey(part))
+                        wholes.put(part, new ArrayList<Composition>());
+                    wholes.get(part).add(new Composition(whole, entry.getKind() == CollectionPlan.EntryKind.EMBED_MANY ? maxFanOut : 1));
+                }
+            }
+        }
+        HashMap<ExportTarget, Long> counts = new HashMap<>();
+        for (ExportTarget target : targets)
+            countDocuments(target, wholes, counts, new HashSet<ExportTarget>());
+        return counts;
+    }
+
+    private long countDocuments(ExportTarget target, Map<ExportTarget, List<Composition>> wholes, Map<ExportTarget, Long> counts, Set<ExportTarget> visiting) {
+        Long count = counts.get(target);
+        if (count != null)
+            return count;
+        long parts = 0;
+        if (wholes.containsKey(target) && visiting.add(target)) {
+            for (Composition composition : wholes.get(target)) {
+                long wholeDocuments = countDocuments(composition.whole, wholes, counts, visiting) * composition.whole.getCollections().size();
+                parts = Math.max(parts, wholeDocuments * composition.partsPerWhole);
+            }
+            visiting.remove(target);
+        }
+        int plans = target.getCollections().size();
+        count = parts > 0 ? (parts + plans - 1) / plans : documents;
+        counts.put(target, count);
+        return count;
+    }
+
+    private ExportedCollection generate(ExportTarget target, long documents) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + SEED_INCREMENT * (target.getDiagramName() + "/" + target.getName()).hashCode());
+        ExportedCollection exported = new ExportedCollection(target.getDiagramName(), target.getName());
+        EncoderGroup encoder = new EncoderGroup();
+        try {
+            for (ExportFormat format : formats) {
+                Path file = target.getFile(format);
+                encoder.encoders.add(format.open(file));
+                exported.addFile(format, file);
+            }
+            long index = 0;
+            for (CollectionPlan collection : target.getCollections()) {
+                for (long i = 0; i < documents; i++, index++) {
+                    if (Thread.currentThread().isInterrupted())
+                        throw new InterruptedIOException("Sample data generation interrupted: " + target.getName());
+                    writeDocument(encoder, collection, target.getName(), index, random);
+                }
+                exported.addDocuments(documents);
+            }
+        } finally {
+            encoder.close();
+        }
+        return exported;
+    }
+
+    private void writeDocument(DocumentEncoder encoder, CollectionPlan collection, String collectionName, long index, SplittableRandom random) throws IOException {
+        encoder.startDocument();
+        encoder.writeString("_id", collectionName + "-" + index);
+        for (CollectionPlan.Entry entry : collection.getEntries()) {
+            String fieldName = entry.getModelClass().getName().toLowerCase();
+            switch (entry.getKind()) {
+                case ATTRIBUTES:
+                    writeValues(encoder, entry.getModelClass(), random);
+                    break;
+                case EMBED_ONE:
+                    encoder.startObject(fieldName);
+                    writeEmbedded(encoder, entry, collectionName, entry.isComposition() ? index : random.nextLong(documents), random);
+                    encoder.endObject();
+                    break;
+                case EMBED_MANY:
+                    int count = minFanOut == maxFanOut ? minFanOut : random.nextInt(minFanOut, maxFanOut + 1);
+                    encoder.startArray(fieldName + "s");
+                    for (int k = 0; k < count; k++) {
+                        encoder.startObject(null);
+                        writeEmbedded(encoder, entry, collectionName, entry.isComposition() ? index * maxFanOut + k : random.nextLong(documents), random);
+                        encoder.endObject();
+                    }
+                    encoder.endArray();
+                    break;
+            }
+        }
+        encoder.endDocument();
+    }
+
+    private void writeEmbedded(DocumentEncoder encoder, CollectionPlan.Entry entry, String collectionName, long reference, SplittableRandom random) {
+        ModelClass iClass = entry.getModelClass();
+        String referenced = entry.isComposition() ? getPartCollectionName(entry, collectionName) : getIdClass(entry).getName().toLowerCase() + "ID";
+        encoder.writeString(iClass.getName().toLowerCase(), referenced + "-" + reference);
+        if (entry.getSuperClass() != null)
+            writeValues(encoder, entry.getSuperClass(), random);
+        writeValues(encoder, iClass, random);
+    }
+
+    private void writeValues(DocumentEncoder encoder, ModelClass iClass, SplittableRandom random) {
+        for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+            if (attribute.isID())
+                continue;
+            if (attribute.getTypeName().equals("Date") || attribute.getTypeName().equals("DateTime"))
+                encoder.writeDate(attribute.getName(), DATE_ORIGIN + random.nextLong(DATE_RANGE));
+            else if (attribute.getValue().equals("someString"))
+                encoder.writeString(attribute.getName(), randomString(random));
+            else if (attribute.getValue().equals("someNumber"))
+                encoder.writeLong(attribute.getName(), random.nextLong(NUMBER_RANGE));
+            else if (attribute.getValue().equals("someBoolean"))
+                encoder.writeBoolean(attribute.getName(), random.nextBoolean());
+            else
+                encoder.writeString(attribute.getName(), attribute.getValue());
+        }
+    }
+
+    private static ModelClass getIdClass(CollectionPlan.Entry entry) {
+        return entry.getSuperClass() != null ? entry.getSuperClass() : entry.getModelClass();
+    }
+
+    private static String getPartCollectionName(CollectionPlan.Entry entry, String wholeCollectionName) {
+        return getIdClass(entry).getName().toLowerCase() + "ID_" + wholeCollectionName;
+    }
+
+    private static String randomString(SplittableRandom random) {
+        char[] chars = new char[random.nextInt(8, 17)];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = LETTERS[random.nextInt(LETTERS.length)];
+        return new String(chars);
+    }
+
+    /**
+     * A whole referencing a composited collection, with the parts each of its documents can reference.
+     */
+    private static class Composition {
+
+        private final ExportTarget whole;
+        private final int partsPerWhole;
+
+        private Composition(ExportTarget whole, int partsPerWhole) {
+            this.whole = whole;
+            this.partsPerWhole = partsPerWhole;
+        }
+    }
+
+    /**
+     * Writes the same document to the file of every format.
+     */
+    private static class EncoderGroup implements DocumentEncoder {
+
+        private final ArrayList<DocumentEncoder> encoders = new ArrayList<>();
+
+        @Override
+        public void startDocument() {
+            for (DocumentEncoder encoder : encoders)
+                encoder.startDocument();
+        }
+
+        @Override
+        public void writeString(String name, String value) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.writeString(name, value);
+        }
+
+        @Override
+        public void writeLong(String name, long value) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.writeLong(name, value);
+        }
+
+        @Override
+        public void writeBoolean(String name, boolean value) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.writeBoolean(name, value);
+        }
+
+        @Override
+        public void writeDate(String name, long millis) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.writeDate(name, millis);
+        }
+
+        @Override
+        public void startObject(String name) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.startObject(name);
+        }
+
+        @Override
+        public void endObject() {
+            for (DocumentEncoder encoder : encoders)
+                encoder.endObject();
+        }
+
+        @Override
+        public void startArray(String name) {
+            for (DocumentEncoder encoder : encoders)
+                encoder.startArray(name);
+        }
+
+        @Override
+        public void endArray() {
+            for (DocumentEncoder encoder : encoders)
+                encoder.endArray();
+        }
+
+        @Override
+        public void endDocument() throws IOException {
+            for (DocumentEncoder encoder : encoders)
+                encoder.endDocument();
+        }
+
+        @Override
+        public long getWritten() {
+            long written = 0;
+            for (DocumentEncoder encoder : encoders)
+                written += encoder.getWritten();
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (DocumentEncoder encoder : encoders) {
+                try {
+                    encoder.close();
+                } catch (IOException e) {
+                    if (failure == null)
+                        failure = e;
+                    else
+                        failure.addSuppressed(e);
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package umltonosqlplugin.log;
+
+public enum LogLevel {
+    SUMMARY,
+    CLASS,
+    TRACE;
+
+    public static LogLevel parse(String name, LogLevel defaultLevel) {
+        if (name == null)
+            return defaultLevel;
+        for (LogLevel level : values()) {
+            if (level.name().equalsIgnoreCase(name.trim()))
+                return level;
+        }
+        return defaultLevel;
+    }
+}
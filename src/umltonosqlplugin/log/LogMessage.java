@@ -0,0 +1,20 @@
+package umltonosqlplugin.log;
+
+public class LogMessage {
+
+    private final LogLevel level;
+    private final String text;
+
+    public LogMessage(LogLevel level, String text) {
+        this.level = level;
+        this.text = text;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,6 @@
+package umltonosqlplugin.log;
+
+public interface MessageSink {
+
+    void showMessage(String text);
+}
@@ -0,0 +1,171 @@
+package umltonosqlplugin.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leveled log of a transformation run. Messages up to the configured level are kept in a bounded ring buffer
+ * and sent to the {@link MessageSink} in batches, every {@link #FLUSH_INTERVAL_MILLIS} and on {@link #flush()}.
+ * When a log file is given, every message of every level is also streamed to it, while the sink still receives
+ * the messages up to the configured level.
+ * <p>
+ * Batches reach the sink one at a time and in the order they were taken from the buffer, whether the timer or a
+ * caller of {@link #flush()} takes them.
+ * <p>
+ * The level is read from the {@code umltonosql.log.level} system property ({@code summary}, {@code class} or
+ * {@code trace}); setting {@code umltonosql.log.file} to {@code true} streams the full trace to
+ * {@value #LOG_FILE} in the output directory.
+ */
+public class TransformationLog {
+
+    public static final String LOG_FILE = "umltonosql.log";
+    public static final long FLUSH_INTERVAL_MILLIS = 500;
+    public static final int CAPACITY = 10000;
+
+    private final MessageSink sink;
+    private final LogLevel level;
+    private final ArrayDeque<String> buffer;
+    private final ScheduledExecutorService flusher;
+    private final Object delivery = new Object();
+    private BufferedWriter file;
+    private int dropped;
+
+    public TransformationLog(MessageSink sink, LogLevel level) {
+        this.sink = sink;
+        this.level = level;
+        buffer = new ArrayDeque<>();
+        flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "umltonosql-log");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        flusher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static TransformationLog fromSystemProperties(MessageSink sink) {
+        return new TransformationLog(sink, LogLevel.parse(System.getProperty("umltonosql.log.level"), LogLevel.SUMMARY));
+    }
+
+    public static boolean isFileRequested() {
+        return Boolean.getBoolean("umltonosql.log.file");
+    }
+
+    /**
+     * Returns the stack trace of {@code throwable} as it is logged when an operation fails.
+     */
+    public static String stackTrace(Throwable throwable) {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    public synchronized void openFile(Path directory) throws IOException {
+        closeFile();
+        file = Files.newBufferedWriter(directory.resolve(LOG_FILE), StandardCharsets.UTF_8);
+    }
+
+    public synchronized boolean isEnabled(LogLevel messageLevel) {
+        return file != null || messageLevel.compareTo(level) <= 0;
+    }
+
+    public void log(LogLevel messageLevel, String text) {
+        synchronized (this) {
+            writeToFile(text);
+            if (messageLevel.compareTo(level) > 0)
+                return;
+            if (buffer.size() == CAPACITY) {
+                buffer.removeFirst();
+                dropped++;
+            }
+            buffer.addLast(text);
+        }
+    }
+
+    public void publish(List<LogMessage> messages) {
+        for (LogMessage message : messages)
+            log(message.getLevel(), message.getText());
+    }
+
+    public void flush() {
+        synchronized (delivery) {
+            String batch = takeBatch();
+            if (batch != null)
+                sink.showMessage(batch);
+        }
+    }
+
+    public void close() {
+        flusher.shutdownNow();
+        flush();
+        synchronized (this) {
+            closeFile();
+        }
+    }
+
+    /**
+     * Flushes the log file and empties the buffer into one message, or returns {@code null} when there is nothing
+     * to show. Logging is only held up while the batch is taken, not while the sink shows it.
+     */
+    private synchronized String takeBatch() {
+        if (file != null) {
+            try {
+                file.flush();
+            } catch (IOException e) {
+                closeFile();
+            }
+        }
+        if (buffer.isEmpty() && dropped == 0)
+            return null;
+        StringBuilder text = new StringBuilder();
+        if (dropped > 0)
+            text.append("... ").append(dropped).append(" earlier messages dropped");
+        while (!buffer.isEmpty()) {
+            if (text.length() > 0)
+                text.append("\n");
+            text.append(buffer.removeFirst());
+        }
+        dropped = 0;
+        return text.toString();
+    }
+
+    private void writeToFile(String text) {
+        if (file == null)
+            return;
+        try {
+            file.write(text);
+            file.newLine();
+        } catch (IOException e) {
+            closeFile();
+        }
+    }
+
+    private void closeFile() {
+        if (file == null)
+            return;
+        try {
+            file.close();
+        } catch (IOException ignored) {
+        } finally {
+            file = null;
+        }
+    }
+}
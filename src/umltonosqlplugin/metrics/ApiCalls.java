@@ -0,0 +1,21 @@
+package umltonosqlplugin.metrics;
+
+/**
+ * Number of model API iterators requested by the current thread. Model adapters count every iterator they
+ * open; a scope reads the count before and after its work, so concurrent diagrams do not mix their calls.
+ */
+public final class ApiCalls {
+
+    private static final ThreadLocal<long[]> CALLS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ApiCalls() {
+    }
+
+    public static void increment() {
+        CALLS.get()[0]++;
+    }
+
+    public static long current() {
+        return CALLS.get()[0];
+    }
+}
@@ -0,0 +1,134 @@
+package umltonosqlplugin.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timers and counters of one phase, diagram or class of a run. A scope is updated by one thread at a time,
+ * the one currently working on it, and read once the run has completed.
+ */
+public class Metrics {
+
+    private final String name;
+    private final ArrayList<Metrics> children;
+    private long elapsedNanos;
+    private long filesCreated;
+    private long filesDeleted;
+    private long filesDeletedAfterWrite;
+    private long bytesWritten;
+    private long opens;
+    private long closes;
+    private long apiCalls;
+    private long errors;
+
+    public Metrics(String name) {
+        this.name = name;
+        children = new ArrayList<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metrics child(String name) {
+        Metrics child = new Metrics(name);
+        children.add(child);
+        return child;
+    }
+
+    public List<Metrics> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    public void addElapsed(long nanos) {
+        elapsedNanos += nanos;
+    }
+
+    public void fileCreated() {
+        filesCreated++;
+    }
+
+    public void fileDeleted(boolean afterWrite) {
+        filesDeleted++;
+        if (afterWrite)
+            filesDeletedAfterWrite++;
+    }
+
+    public void addBytesWritten(long bytes) {
+        bytesWritten += bytes;
+    }
+
+    public void opened() {
+        opens++;
+    }
+
+    public void closed() {
+        closes++;
+    }
+
+    public void addApiCalls(long calls) {
+        apiCalls += calls;
+    }
+
+    /**
+     * Records a write or delete that failed; the error itself is only logged.
+     */
+    public void failed() {
+        errors++;
+    }
+
+    /**
+     * Adds the counters of another scope, but not its elapsed time, to this one.
+     */
+    public void addCounters(Metrics other) {
+        filesCreated += other.filesCreated;
+        filesDeleted += other.filesDeleted;
+        filesDeletedAfterWrite += other.filesDeletedAfterWrite;
+        bytesWritten += other.bytesWritten;
+        opens += other.opens;
+        closes += other.closes;
+        apiCalls += other.apiCalls;
+        errors += other.errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000;
+    }
+
+    public long getFilesCreated() {
+        return filesCreated;
+    }
+
+    public long getFilesDeleted() {
+        return filesDeleted;
+    }
+
+    public long getFilesDeletedAfterWrite() {
+        return filesDeletedAfterWrite;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getOpens() {
+        return opens;
+    }
+
+    public long getCloses() {
+        return closes;
+    }
+
+    public long getApiCalls() {
+        return apiCalls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,144 @@
+package umltonosqlplugin.metrics;
+
+import umltonosqlplugin.output.JsonStrings;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Metrics of a whole generation run: one scope per phase and one per diagram, each diagram holding a scope per
+ * class. {@link #write(Path)} stores them as {@value #FILE} in the output directory, so runs can be compared.
+ */
+public class RunMetrics {
+
+    public static final String FILE = "metrics.json";
+
+    private static final int SLOWEST_DIAGRAMS = 3;
+
+    private final ArrayList<Metrics> phases;
+    private final ArrayList<Metrics> diagrams;
+    private final long started;
+
+    public RunMetrics() {
+        phases = new ArrayList<>();
+        diagrams = new ArrayList<>();
+        started = System.currentTimeMillis();
+    }
+
+    public synchronized Metrics phase(String name) {
+        Metrics phase = new Metrics(name);
+        phases.add(phase);
+        return phase;
+    }
+
+    public synchronized Metrics diagram(String name) {
+        Metrics diagram = new Metrics(name);
+        diagrams.add(diagram);
+        return diagram;
+    }
+
+    public synchronized List<Metrics> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    public synchronized List<Metrics> getDiagrams() {
+        return new ArrayList<>(diagrams);
+    }
+
+    public synchronized Metrics getTotals() {
+        Metrics totals = new Metrics("total");
+        for (Metrics phase : phases) {
+            totals.addElapsed(phase.getElapsedNanos());
+            totals.addCounters(phase);
+        }
+        for (Metrics diagram : diagrams)
+            totals.addCounters(diagram);
+        return totals;
+    }
+
+    public Path write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(FILE);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+        return file;
+    }
+
+    public String getSummary() {
+        Metrics totals = getTotals();
+        StringBuilder summary = new StringBuilder("Metrics: ").append(totals.getElapsedMillis()).append(" ms (");
+        List<Metrics> phases = getPhases();
+        for (int i = 0; i < phases.size(); i++) {
+            if (i > 0)
+                summary.append(", ");
+            summary.append(phases.get(i).getName()).append(' ').append(phases.get(i).getElapsedMillis()).append(" ms");
+        }
+        summary.append("), files created: ").append(totals.getFilesCreated())
+                .append(", deleted after writing: ").append(totals.getFilesDeletedAfterWrite())
+                .append(", bytes written: ").append(totals.getBytesWritten())
+                .append(", API iterator calls: ").append(totals.getApiCalls());
+        if (totals.getErrors() > 0)
+            summary.append(", errors: ").append(totals.getErrors());
+        List<Metrics> slowest = getDiagrams();
+        if (!slowest.isEmpty()) {
+            Collections.sort(slowest, Comparator.comparingLong(Metrics::getElapsedNanos).reversed());
+            summary.append("\nSlowest diagrams: ");
+            for (int i = 0; i < Math.min(SLOWEST_DIAGRAMS, slowest.size()); i++) {
+                if (i > 0)
+                    summary.append(", ");
+                summary.append(slowest.get(i).getName()).append(" (").append(slowest.get(i).getElapsedMillis()).append(" ms)");
+            }
+        }
+        return summary.toString();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\n\t\"started\": ").append(started).append(',');
+        json.append("\n\t\"total\": ");
+        appendScope(json, getTotals(), "\t");
+        json.append(",\n\t\"phases\": [");
+        appendScopes(json, getPhases(), "\t\t");
+        json.append("\n\t],\n\t\"diagrams\": [");
+        appendScopes(json, getDiagrams(), "\t\t");
+        json.append("\n\t]\n}\n");
+        return json.toString();
+    }
+
+    private static void appendScopes(StringBuilder json, List<Metrics> scopes, String indent) {
+        for (int i = 0; i < scopes.size(); i++) {
+            json.append(i > 0 ? ",\n" : "\n").append(indent);
+            appendScope(json, scopes.get(i), indent);
+        }
+    }
+
+    private static void appendScope(StringBuilder json, Metrics scope, String indent) {
+        String inner = indent + "\t";
+        json.append('{');
+        json.append('\n').append(inner).append("\"name\": ").append(JsonStrings.quote(scope.getName()));
+        json.append(",\n").append(inner).append("\"elapsedMs\": ").append(scope.getElapsedNanos() / 1000000.0);
+        json.append(",\n").append(inner).append("\"filesCreated\": ").append(scope.getFilesCreated());
+        json.append(",\n").append(inner).append("\"filesDeleted\": ").append(scope.getFilesDeleted());
+        json.append(",\n").append(inner).append("\"filesDeletedAfterWrite\": ").append(scope.getFilesDeletedAfterWrite());
+        json.append(",\n").append(inner).append("\"bytesWritten\": ").append(scope.getBytesWritten());
+        json.append(",\n").append(inner).append("\"opens\": ").append(scope.getOpens());
+        json.append(",\n").append(inner).append("\"closes\": ").append(scope.getCloses());
+        json.append(",\n").append(inner).append("\"apiIteratorCalls\": ").append(scope.getApiCalls());
+        json.append(",\n").append(inner).append("\"errors\": ").append(scope.getErrors());
+        List<Metrics> children = scope.getChildren();
+        if (!children.isEmpty()) {
+            json.append(",\n").append(inner).append("\"classes\": [");
+            appendScopes(json, children, inner + "\t");
+            json.append('\n').append(inner).append(']');
+        }
+        json.append('\n').append(indent).append('}');
+    }
+}
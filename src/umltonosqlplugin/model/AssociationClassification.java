@@ -0,0 +1,43 @@
+package umltonosqlplugin.model;
+
+/**
+ * Classification of an association by the kinds of its ends, seen from its "from" end, computed once during
+ * discovery. Whether association classes apply is decided by the mapping, against the classes it is applied to.
+ */
+public class AssociationClassification {
+
+    private static final int KINDS = AssociationEndKind.values().length;
+
+    private final AssociationEndKind from;
+    private final AssociationEndKind to;
+
+    public AssociationClassification(AssociationEndKind from, AssociationEndKind to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static AssociationClassification of(ModelAssociationEnd fromEnd, ModelAssociationEnd toEnd) {
+        return new AssociationClassification(AssociationEndKind.of(fromEnd.getAggregationKind(), fromEnd.getMultiplicity()),
+                AssociationEndKind.of(toEnd.getAggregationKind(), toEnd.getMultiplicity()));
+    }
+
+    public static int code(AssociationEndKind from, AssociationEndKind to) {
+        return from.ordinal() * KINDS + to.ordinal();
+    }
+
+    public static int codes() {
+        return KINDS * KINDS;
+    }
+
+    public AssociationEndKind getFrom() {
+        return from;
+    }
+
+    public AssociationEndKind getTo() {
+        return to;
+    }
+
+    public int getCode() {
+        return code(from, to);
+    }
+}
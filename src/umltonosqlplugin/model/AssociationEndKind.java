@@ -0,0 +1,60 @@
+package umltonosqlplugin.model;
+
+/**
+ * Aggregation kind and multiplicity of an association end, as far as the mapping rules distinguish them.
+ */
+public enum AssociationEndKind {
+    ONE,
+    MANY,
+    COMPOSITE_ONE,
+    COMPOSITE_MANY,
+    UNMAPPED;
+
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    public static AssociationEndKind of(String aggregationKind, String multiplicity) {
+        Boolean many = isMany(multiplicity);
+        if (many == null)
+            return UNMAPPED;
+        if (aggregationKind.equals("None") || aggregationKind.equals("Shared"))
+            return many ? MANY : ONE;
+        if (aggregationKind.equals("Composited"))
+            return many ? COMPOSITE_MANY : COMPOSITE_ONE;
+        return UNMAPPED;
+    }
+
+    public boolean isComposite() {
+        return this == COMPOSITE_ONE || this == COMPOSITE_MANY;
+    }
+
+    /**
+     * Returns the upper bound of a multiplicity such as {@code 1}, {@code 0..1}, {@code *}, {@code 1..*} or
+     * {@code 0..5}, {@link #UNBOUNDED} for {@code *} and {@code n}, or {@code -1} when it cannot be read.
+     */
+    public static int upperBound(String multiplicity) {
+        if (multiplicity == null)
+            return -1;
+        String upper = multiplicity.trim();
+        int range = upper.lastIndexOf("..");
+        if (range >= 0)
+            upper = upper.substring(range + 2).trim();
+        if (upper.equals("*") || upper.equalsIgnoreCase("n"))
+            return UNBOUNDED;
+        try {
+            return Integer.parseInt(upper);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns whether the upper bound of a multiplicity is greater than one, or {@code null} when the multiplicity
+     * cannot be read.
+     */
+    private static Boolean isMany(String multiplicity) {
+        int bound = upperBound(multiplicity);
+        if (bound < 1)
+            return null;
+        return bound > 1;
+    }
+}
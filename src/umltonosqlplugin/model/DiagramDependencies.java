@@ -0,0 +1,131 @@
+package umltonosqlplugin.model;
+
+import java.util.*;
+
+/**
+ * Which diagrams have to be transformed again when classes change. A change of a class affects the diagrams
+ * showing the class, the classes of its generalization hierarchy, since their documents are merged, and the
+ * hierarchies of the classes it is associated with or is the association class of, since they embed it. Diagrams
+ * of the same name share a folder and are always affected together.
+ */
+public class DiagramDependencies {
+
+    private final HashMap<String, LinkedHashSet<String>> diagramsByClass;
+    private final HashMap<String, LinkedHashSet<String>> neighbours;
+    private final HashMap<String, String> families;
+    private final HashMap<String, LinkedHashSet<String>> familyMembers;
+    private final HashMap<String, String> diagramNames;
+    private final HashMap<String, LinkedHashSet<String>> diagramsByName;
+
+    private DiagramDependencies() {
+        diagramsByClass = new HashMap<>();
+        neighbours = new HashMap<>();
+        families = new HashMap<>();
+        familyMembers = new HashMap<>();
+        diagramNames = new HashMap<>();
+        diagramsByName = new HashMap<>();
+    }
+
+    public static DiagramDependencies of(ProjectSnapshot snapshot) {
+        DiagramDependencies dependencies = new DiagramDependencies();
+        for (ModelDiagram diagram : snapshot.getDiagrams()) {
+            dependencies.diagramNames.put(diagram.getId(), diagram.getName());
+            add(dependencies.diagramsByName, diagram.getName(), diagram.getId());
+            for (ModelClass iClass : snapshot.getClasses(diagram))
+                add(dependencies.diagramsByClass, iClass.getId(), diagram.getId());
+        }
+        for (ModelClass iClass : snapshot.getClasses()) {
+            for (ModelAssociationEnd end : iClass.getAssociationEnds())
+                dependencies.link(iClass, end.getOppositeEnd().getModelClass());
+            for (ModelAssociation association : iClass.getAssociationsAsClass()) {
+                dependencies.link(iClass, association.getFrom());
+                dependencies.link(iClass, association.getTo());
+            }
+            for (ModelClass iClassSub : iClass.getSubClasses())
+                dependencies.union(iClass.getId(), iClassSub.getId());
+        }
+        return dependencies;
+    }
+
+    public Set<String> getDiagramIds() {
+        return Collections.unmodifiableSet(diagramNames.keySet());
+    }
+
+    /**
+     * Returns the ids of the diagrams affected by changes of the classes with {@code classIds} and of the diagrams
+     * with {@code diagramIds}, in no particular order. Ids unknown to this project are ignored.
+     */
+    public Set<String> getAffectedDiagrams(Collection<String> classIds, Collection<String> diagramIds) {
+        LinkedHashSet<String> classes = new LinkedHashSet<>();
+        for (String classId : classIds) {
+            Set<String> family = getFamily(classId);
+            classes.addAll(family);
+            for (String member : family) {
+                for (String neighbour : get(neighbours, member))
+                    classes.addAll(getFamily(neighbour));
+            }
+        }
+        LinkedHashSet<String> diagrams = new LinkedHashSet<>();
+        for (String classId : classes)
+            diagrams.addAll(get(diagramsByClass, classId));
+        for (String diagramId : diagramIds) {
+            if (diagramNames.containsKey(diagramId))
+                diagrams.add(diagramId);
+        }
+        LinkedHashSet<String> affected = new LinkedHashSet<>();
+        for (String diagramId : diagrams)
+            affected.addAll(get(diagramsByName, diagramNames.get(diagramId)));
+        return affected;
+    }
+
+    private void link(ModelClass iClass, ModelClass other) {
+        add(neighbours, iClass.getId(), other.getId());
+        add(neighbours, other.getId(), iClass.getId());
+    }
+
+    private Set<String> getFamily(String classId) {
+        LinkedHashSet<String> members = familyMembers.get(find(classId));
+        return members != null ? members : Collections.singleton(classId);
+    }
+
+    private String find(String classId) {
+        String root = classId;
+        String parent;
+        while ((parent = families.get(root)) != null)
+            root = parent;
+        return root;
+    }
+
+    private void union(String classId, String otherId) {
+        String root = find(classId);
+        String otherRoot = find(otherId);
+        if (root.equals(otherRoot))
+            return;
+        families.put(otherRoot, root);
+        LinkedHashSet<String> members = familyMembers.get(root);
+        if (members == null) {
+            members = new LinkedHashSet<>();
+            members.add(root);
+            familyMembers.put(root, members);
+        }
+        LinkedHashSet<String> otherMembers = familyMembers.remove(otherRoot);
+        if (otherMembers != null)
+            members.addAll(otherMembers);
+        else
+            members.add(otherRoot);
+    }
+
+    private static void add(HashMap<String, LinkedHashSet<String>> map, String key, String value) {
+        LinkedHashSet<String> values = map.get(key);
+        if (values == null) {
+            values = new LinkedHashSet<>();
+            map.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private static Set<String> get(HashMap<String, LinkedHashSet<String>> map, String key) {
+        LinkedHashSet<String> values = map.get(key);
+        return values != null ? values : Collections.<String>emptySet();
+    }
+}
@@ -0,0 +1,8 @@
+package umltonosqlplugin.model;
+
+public interface ModelAssociation {
+
+    ModelClass getFrom();
+
+    ModelClass getTo();
+}
@@ -0,0 +1,12 @@
+package umltonosqlplugin.model;
+
+public interface ModelAssociationEnd {
+
+    String getAggregationKind();
+
+    String getMultiplicity();
+
+    ModelClass getModelClass();
+
+    ModelAssociationEnd getOppositeEnd();
+}
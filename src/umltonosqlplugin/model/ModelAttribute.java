@@ -0,0 +1,15 @@
+package umltonosqlplugin.model;
+
+public interface ModelAttribute {
+
+    String getName();
+
+    boolean isID();
+
+    String getTypeName();
+
+    /**
+     * Returns whether the type is one of the modelling tool's primitive data types rather than a class or free text.
+     */
+    boolean isDataType();
+}
@@ -0,0 +1,35 @@
+package umltonosqlplugin.model;
+
+import java.util.List;
+
+public interface ModelClass {
+
+    /**
+     * Returns the id of the model element; views of the same class on different diagrams share it.
+     */
+    String getId();
+
+    String getName();
+
+    List<String> getStereotypes();
+
+    List<String> getEnumerationLiterals();
+
+    List<ModelAttribute> getAttributes();
+
+    /**
+     * Returns the classes this class has an outgoing class-to-class relationship with, which the transformation
+     * treats as its subclasses.
+     */
+    List<ModelClass> getSubClasses();
+
+    /**
+     * Returns the associations this class is the association class of.
+     */
+    List<ModelAssociation> getAssociationsAsClass();
+
+    /**
+     * Returns the association ends on the "from" side of this class; the other end is {@link ModelAssociationEnd#getOppositeEnd()}.
+     */
+    List<ModelAssociationEnd> getAssociationEnds();
+}
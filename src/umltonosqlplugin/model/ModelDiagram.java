@@ -0,0 +1,22 @@
+package umltonosqlplugin.model;
+
+import java.util.List;
+
+public interface ModelDiagram {
+
+    String CLASS_DIAGRAM = "ClassDiagram";
+
+    /**
+     * Returns the id of the diagram; diagrams of the same name have different ids.
+     */
+    String getId();
+
+    String getName();
+
+    String getType();
+
+    /**
+     * Returns the classes shown on the diagram in diagram element order; a class shown twice is returned twice.
+     */
+    List<ModelClass> getClasses();
+}
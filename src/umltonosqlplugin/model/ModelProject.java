@@ -0,0 +1,11 @@
+package umltonosqlplugin.model;
+
+import java.util.List;
+
+/**
+ * Read-only view of a UML project, independent of the modelling tool it comes from.
+ */
+public interface ModelProject {
+
+    List<ModelDiagram> getDiagrams();
+}
@@ -0,0 +1,53 @@
+package umltonosqlplugin.model;
+
+import java.util.*;
+
+/**
+ * Diagrams and classes of a project, read in a single pass over its diagrams. Classes are deduplicated by id,
+ * so a class shown on several diagrams is a single {@link ModelClass}; every diagram keeps its classes in diagram
+ * element order, including a class shown twice on it.
+ */
+public class ProjectSnapshot {
+
+    private final LinkedHashMap<ModelDiagram, List<ModelClass>> diagrams;
+    private final List<ModelClass> classes;
+
+    private ProjectSnapshot(LinkedHashMap<ModelDiagram, List<ModelClass>> diagrams, List<ModelClass> classes) {
+        this.diagrams = diagrams;
+        this.classes = classes;
+    }
+
+    public static ProjectSnapshot of(ModelProject project) {
+        LinkedHashMap<ModelDiagram, List<ModelClass>> diagrams = new LinkedHashMap<>();
+        LinkedHashMap<String, ModelClass> classes = new LinkedHashMap<>();
+        for (ModelDiagram diagram : project.getDiagrams()) {
+            ArrayList<ModelClass> diagramClasses = new ArrayList<>();
+            for (ModelClass iClass : diagram.getClasses()) {
+                ModelClass known = classes.get(iClass.getId());
+                if (known == null) {
+                    known = iClass;
+                    classes.put(iClass.getId(), iClass);
+                }
+                diagramClasses.add(known);
+            }
+            diagrams.put(diagram, Collections.unmodifiableList(diagramClasses));
+        }
+        return new ProjectSnapshot(diagrams, Collections.unmodifiableList(new ArrayList<>(classes.values())));
+    }
+
+    public List<ModelDiagram> getDiagrams() {
+        return new ArrayList<>(diagrams.keySet());
+    }
+
+    public List<ModelClass> getClasses(ModelDiagram diagram) {
+        List<ModelClass> diagramClasses = diagrams.get(diagram);
+        return diagramClasses != null ? diagramClasses : Collections.<ModelClass>emptyList();
+    }
+
+    /**
+     * Returns every class of the project once, in the order of first appearance.
+     */
+    public List<ModelClass> getClasses() {
+        return classes;
+    }
+}
@@ -0,0 +1,109 @@
+package umltonosqlplugin.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Association classes and generalizations of a project, indexed once during discovery. Association classes
+ * are keyed by the unordered pair of class names they connect, subclasses by their superclass. Associations
+ * are classified by their "from" end.
+ */
+public class RelationshipIndex {
+
+    private static final List<ModelClass> NO_CLASSES = Collections.emptyList();
+
+    private final HashMap<String, LinkedHashMap<ModelAssociation, ModelClass>> assoClasses;
+    private final HashMap<ModelAssociation, Integer> assoClassOrder;
+    private final HashSet<String> assoClassNames;
+    private final HashSet<String> geneClasses;
+    private final HashMap<ModelClass, ArrayList<ModelClass>> subClasses;
+    private final ConcurrentHashMap<ModelAssociationEnd, AssociationClassification> classifications;
+
+    public RelationshipIndex() {
+        assoClasses = new HashMap<>();
+        assoClassOrder = new HashMap<>();
+        assoClassNames = new HashSet<>();
+        geneClasses = new HashSet<>();
+        subClasses = new HashMap<>();
+        classifications = new ConcurrentHashMap<>();
+    }
+
+    public void addAssociationClass(ModelAssociation association, ModelClass assoClass) {
+        String key = pairKey(association.getFrom().getName(), association.getTo().getName());
+        LinkedHashMap<ModelAssociation, ModelClass> classes = assoClasses.get(key);
+        if (classes == null) {
+            classes = new LinkedHashMap<>();
+            assoClasses.put(key, classes);
+        }
+        classes.put(association, assoClass);
+        assoClassNames.add(assoClass.getName());
+        if (!assoClassOrder.containsKey(association))
+            assoClassOrder.put(association, assoClassOrder.size());
+    }
+
+    public void addGeneralization(ModelClass superClass, ModelClass subClass) {
+        geneClasses.add(subClass.getName());
+        ArrayList<ModelClass> classes = subClasses.get(superClass);
+        if (classes == null) {
+            classes = new ArrayList<>();
+            subClasses.put(superClass, classes);
+        }
+        if (!classes.contains(subClass))
+            classes.add(subClass);
+    }
+
+    public boolean isAssociationClass(String className) {
+        return assoClassNames.contains(className);
+    }
+
+    public boolean isSubClass(String className) {
+        return geneClasses.contains(className);
+    }
+
+    public List<ModelClass> getSubClasses(ModelClass superClass) {
+        ArrayList<ModelClass> classes = subClasses.get(superClass);
+        return classes != null ? classes : NO_CLASSES;
+    }
+
+    /**
+     * Returns the classification of the association of {@code fromEnd}, classifying it on first use.
+     */
+    public AssociationClassification classify(ModelAssociationEnd fromEnd) {
+        AssociationClassification classification = classifications.get(fromEnd);
+        if (classification == null) {
+            classification = AssociationClassification.of(fromEnd, fromEnd.getOppositeEnd());
+            classifications.put(fromEnd, classification);
+        }
+        return classification;
+    }
+
+    /**
+     * Returns the association classes whose association connects only classes named {@code className} and
+     * {@code otherClassName}, including self associations of either class, in the order they were added.
+     */
+    public List<Map.Entry<ModelAssociation, ModelClass>> getAssociationClasses(String className, String otherClassName) {
+        ArrayList<Map.Entry<ModelAssociation, ModelClass>> result = new ArrayList<>();
+        collectAssociationClasses(pairKey(className, otherClassName), result);
+        if (!className.equals(otherClassName)) {
+            collectAssociationClasses(pairKey(className, className), result);
+            collectAssociationClasses(pairKey(otherClassName, otherClassName), result);
+            Collections.sort(result, new Comparator<Map.Entry<ModelAssociation, ModelClass>>() {
+                @Override
+                public int compare(Map.Entry<ModelAssociation, ModelClass> entry, Map.Entry<ModelAssociation, ModelClass> other) {
+                    return Integer.compare(assoClassOrder.get(entry.getKey()), assoClassOrder.get(other.getKey()));
+                }
+            });
+        }
+        return result;
+    }
+
+    private void collectAssociationClasses(String key, ArrayList<Map.Entry<ModelAssociation, ModelClass>> result) {
+        LinkedHashMap<ModelAssociation, ModelClass> classes = assoClasses.get(key);
+        if (classes != null)
+            result.addAll(classes.entrySet());
+    }
+
+    private static String pairKey(String className, String otherClassName) {
+        return className.compareTo(otherClassName) <= 0 ? className + '\u0000' + otherClassName : otherClassName + '\u0000' + className;
+    }
+}
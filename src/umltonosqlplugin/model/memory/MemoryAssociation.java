@@ -0,0 +1,54 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.ModelAssociation;
+import umltonosqlplugin.model.ModelClass;
+
+public class MemoryAssociation implements ModelAssociation {
+
+    private final MemoryAssociationEnd fromEnd;
+    private final MemoryAssociationEnd toEnd;
+
+    private MemoryAssociation(MemoryClass from, String fromAggregationKind, String fromMultiplicity,
+                              MemoryClass to, String toAggregationKind, String toMultiplicity) {
+        fromEnd = new MemoryAssociationEnd(from, fromAggregationKind, fromMultiplicity);
+        toEnd = new MemoryAssociationEnd(to, toAggregationKind, toMultiplicity);
+        fromEnd.setOppositeEnd(toEnd);
+        toEnd.setOppositeEnd(fromEnd);
+    }
+
+    /**
+     * Creates an association and registers its "from" end with the {@code from} class.
+     */
+    public static MemoryAssociation associate(MemoryClass from, String fromAggregationKind, String fromMultiplicity,
+                                              MemoryClass to, String toAggregationKind, String toMultiplicity) {
+        MemoryAssociation association = new MemoryAssociation(from, fromAggregationKind, fromMultiplicity, to, toAggregationKind, toMultiplicity);
+        from.addAssociationEnd(association.fromEnd);
+        return association;
+    }
+
+    /**
+     * Creates an association without registering it with either class, for an association only known as the
+     * association of an association class, whose ends are not known.
+     */
+    static MemoryAssociation between(MemoryClass from, MemoryClass to) {
+        return new MemoryAssociation(from, null, null, to, null, null);
+    }
+
+    public MemoryAssociationEnd getFromEnd() {
+        return fromEnd;
+    }
+
+    public MemoryAssociationEnd getToEnd() {
+        return toEnd;
+    }
+
+    @Override
+    public ModelClass getFrom() {
+        return fromEnd.getModelClass();
+    }
+
+    @Override
+    public ModelClass getTo() {
+        return toEnd.getModelClass();
+    }
+}
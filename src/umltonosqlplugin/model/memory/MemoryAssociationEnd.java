@@ -0,0 +1,42 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.ModelAssociationEnd;
+import umltonosqlplugin.model.ModelClass;
+
+public class MemoryAssociationEnd implements ModelAssociationEnd {
+
+    private final MemoryClass modelClass;
+    private final String aggregationKind;
+    private final String multiplicity;
+    private MemoryAssociationEnd oppositeEnd;
+
+    MemoryAssociationEnd(MemoryClass modelClass, String aggregationKind, String multiplicity) {
+        this.modelClass = modelClass;
+        this.aggregationKind = aggregationKind;
+        this.multiplicity = multiplicity;
+    }
+
+    void setOppositeEnd(MemoryAssociationEnd oppositeEnd) {
+        this.oppositeEnd = oppositeEnd;
+    }
+
+    @Override
+    public String getAggregationKind() {
+        return aggregationKind;
+    }
+
+    @Override
+    public String getMultiplicity() {
+        return multiplicity;
+    }
+
+    @Override
+    public ModelClass getModelClass() {
+        return modelClass;
+    }
+
+    @Override
+    public ModelAssociationEnd getOppositeEnd() {
+        return oppositeEnd;
+    }
+}
@@ -0,0 +1,38 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.ModelAttribute;
+
+public class MemoryAttribute implements ModelAttribute {
+
+    private final String name;
+    private final String typeName;
+    private final boolean dataType;
+    private final boolean id;
+
+    public MemoryAttribute(String name, String typeName, boolean dataType, boolean id) {
+        this.name = name;
+        this.typeName = typeName;
+        this.dataType = dataType;
+        this.id = id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isID() {
+        return id;
+    }
+
+    @Override
+    public String getTypeName() {
+        return typeName;
+    }
+
+    @Override
+    public boolean isDataType() {
+        return dataType;
+    }
+}
@@ -0,0 +1,111 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MemoryClass implements ModelClass {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final String id;
+    private final String name;
+    private final ArrayList<String> stereotypes;
+    private final ArrayList<String> enumerationLiterals;
+    private final ArrayList<ModelAttribute> attributes;
+    private final ArrayList<ModelClass> subClasses;
+    private final ArrayList<ModelAssociation> associationsAsClass;
+    private final ArrayList<ModelAssociationEnd> associationEnds;
+
+    public MemoryClass(String name) {
+        this("class-" + IDS.incrementAndGet(), name);
+    }
+
+    MemoryClass(String id, String name) {
+        this.id = id;
+        this.name = name;
+        stereotypes = new ArrayList<>();
+        enumerationLiterals = new ArrayList<>();
+        attributes = new ArrayList<>();
+        subClasses = new ArrayList<>();
+        associationsAsClass = new ArrayList<>();
+        associationEnds = new ArrayList<>();
+    }
+
+    public MemoryClass addStereotype(String stereotype) {
+        stereotypes.add(stereotype);
+        return this;
+    }
+
+    public MemoryClass addEnumerationLiteral(String literal) {
+        enumerationLiterals.add(literal);
+        return this;
+    }
+
+    public MemoryClass addAttribute(String attributeName, String typeName, boolean dataType) {
+        attributes.add(new MemoryAttribute(attributeName, typeName, dataType, false));
+        return this;
+    }
+
+    public MemoryClass addIdAttribute(String attributeName, String typeName, boolean dataType) {
+        attributes.add(new MemoryAttribute(attributeName, typeName, dataType, true));
+        return this;
+    }
+
+    public MemoryClass addSubClass(MemoryClass subClass) {
+        subClasses.add(subClass);
+        return this;
+    }
+
+    public MemoryClass addAssociationAsClass(MemoryAssociation association) {
+        associationsAsClass.add(association);
+        return this;
+    }
+
+    void addAssociationEnd(MemoryAssociationEnd end) {
+        associationEnds.add(end);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<String> getStereotypes() {
+        return Collections.unmodifiableList(stereotypes);
+    }
+
+    @Override
+    public List<String> getEnumerationLiterals() {
+        return Collections.unmodifiableList(enumerationLiterals);
+    }
+
+    @Override
+    public List<ModelAttribute> getAttributes() {
+        return Collections.unmodifiableList(attributes);
+    }
+
+    @Override
+    public List<ModelClass> getSubClasses() {
+        return Collections.unmodifiableList(subClasses);
+    }
+
+    @Override
+    public List<ModelAssociation> getAssociationsAsClass() {
+        return Collections.unmodifiableList(associationsAsClass);
+    }
+
+    @Override
+    public List<ModelAssociationEnd> getAssociationEnds() {
+        return Collections.unmodifiableList(associationEnds);
+    }
+}
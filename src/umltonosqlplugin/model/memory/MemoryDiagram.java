@@ -0,0 +1,55 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.model.ModelDiagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MemoryDiagram implements ModelDiagram {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final String id;
+    private final String name;
+    private final String type;
+    private final ArrayList<ModelClass> classes;
+
+    public MemoryDiagram(String name, String type) {
+        this("diagram-" + IDS.incrementAndGet(), name, type);
+    }
+
+    MemoryDiagram(String id, String name, String type) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        classes = new ArrayList<>();
+    }
+
+    public MemoryDiagram addClass(MemoryClass memoryClass) {
+        classes.add(memoryClass);
+        return this;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public List<ModelClass> getClasses() {
+        return Collections.unmodifiableList(classes);
+    }
+}
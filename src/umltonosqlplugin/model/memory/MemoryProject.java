@@ -0,0 +1,119 @@
+package umltonosqlplugin.model.memory;
+
+import umltonosqlplugin.model.*;
+
+import java.util.*;
+
+/**
+ * In-memory project, used to run the transformation without a modelling tool, or on a copy of a project that is
+ * read only once.
+ */
+public class MemoryProject implements ModelProject {
+
+    private final ArrayList<ModelDiagram> diagrams;
+
+    public MemoryProject() {
+        diagrams = new ArrayList<>();
+    }
+
+    /**
+     * Reads the whole of {@code project} into a new project on the calling thread: its diagrams and every class
+     * reachable from them, with their ids. The copy no longer reads {@code project}, so it can be transformed on
+     * other threads while {@code project} changes.
+     */
+    public static MemoryProject copyOf(ModelProject project) {
+        return new Copy().copy(project);
+    }
+
+    public MemoryDiagram addDiagram(String name) {
+        return addDiagram(name, ModelDiagram.CLASS_DIAGRAM);
+    }
+
+    public MemoryDiagram addDiagram(String name, String type) {
+        MemoryDiagram diagram = new MemoryDiagram(name, type);
+        diagrams.add(diagram);
+        return diagram;
+    }
+
+    @Override
+    public List<ModelDiagram> getDiagrams() {
+        return Collections.unmodifiableList(diagrams);
+    }
+
+    /**
+     * Copy of a single project. Every element is copied once, so elements that are the same object in the project
+     * are the same object in the copy; classes are filled in after their diagrams, in the order they were reached.
+     */
+    private static class Copy {
+
+        private final IdentityHashMap<ModelClass, MemoryClass> classes = new IdentityHashMap<>();
+        private final IdentityHashMap<ModelAssociation, MemoryAssociation> associations = new IdentityHashMap<>();
+        private final IdentityHashMap<ModelAssociationEnd, MemoryAssociationEnd> ends = new IdentityHashMap<>();
+        private final ArrayDeque<ModelClass> unfilled = new ArrayDeque<>();
+
+        private MemoryProject copy(ModelProject project) {
+            MemoryProject copy = new MemoryProject();
+            for (ModelDiagram diagram : project.getDiagrams()) {
+                MemoryDiagram diagramCopy = new MemoryDiagram(diagram.getId(), diagram.getName(), diagram.getType());
+                for (ModelClass iClass : diagram.getClasses())
+                    diagramCopy.addClass(copy(iClass));
+                copy.diagrams.add(diagramCopy);
+            }
+            while (!unfilled.isEmpty()) {
+                ModelClass iClass = unfilled.poll();
+                fill(iClass, classes.get(iClass));
+            }
+            return copy;
+        }
+
+        private MemoryClass copy(ModelClass iClass) {
+            MemoryClass copy = classes.get(iClass);
+            if (copy == null) {
+                copy = new MemoryClass(iClass.getId(), iClass.getName());
+                classes.put(iClass, copy);
+                unfilled.add(iClass);
+            }
+            return copy;
+        }
+
+        private void fill(ModelClass iClass, MemoryClass copy) {
+            for (String stereotype : iClass.getStereotypes())
+                copy.addStereotype(stereotype);
+            for (String literal : iClass.getEnumerationLiterals())
+                copy.addEnumerationLiteral(literal);
+            for (ModelAttribute attribute : iClass.getAttributes()) {
+                if (attribute.isID())
+                    copy.addIdAttribute(attribute.getName(), attribute.getTypeName(), attribute.isDataType());
+                else
+                    copy.addAttribute(attribute.getName(), attribute.getTypeName(), attribute.isDataType());
+            }
+            for (ModelClass subClass : iClass.getSubClasses())
+                copy.addSubClass(copy(subClass));
+            for (ModelAssociation association : iClass.getAssociationsAsClass())
+                copy.addAssociationAsClass(copy(association));
+            for (ModelAssociationEnd end : iClass.getAssociationEnds())
+                copy.addAssociationEnd(copy(end));
+        }
+
+        private MemoryAssociation copy(ModelAssociation association) {
+            MemoryAssociation copy = associations.get(association);
+            if (copy == null) {
+                copy = MemoryAssociation.between(copy(association.getFrom()), copy(association.getTo()));
+                associations.put(association, copy);
+            }
+            return copy;
+        }
+
+        private MemoryAssociationEnd copy(ModelAssociationEnd end) {
+            if (end == null)
+                return null;
+            MemoryAssociationEnd copy = ends.get(end);
+            if (copy == null) {
+                copy = new MemoryAssociationEnd(copy(end.getModelClass()), end.getAggregationKind(), end.getMultiplicity());
+                ends.put(end, copy);
+                copy.setOppositeEnd(copy(end.getOppositeEnd()));
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package umltonosqlplugin.model.vp;
+
+import com.vp.plugin.diagram.IDiagramElement;
+import com.vp.plugin.diagram.IDiagramListener;
+import com.vp.plugin.diagram.IDiagramUIModel;
+import com.vp.plugin.model.*;
+import umltonosqlplugin.transformation.LiveTransformation;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.*;
+
+/**
+ * Forwards the changes of a Visual Paradigm project to a {@link LiveTransformation}: added and removed model
+ * elements and diagrams, diagram elements, and property changes of the classes, attributes and relationships shown
+ * on the diagrams. A change is reported for the classes it touches; when they cannot be told, for the whole project.
+ * Layout changes of diagrams are ignored. {@link #detach()} removes every listener that was added.
+ */
+public class VpChangeListener implements IProjectListener, IProjectModelListener, IProjectDiagramListener, IDiagramListener, PropertyChangeListener {
+
+    private final LiveTransformation live;
+    private final Set<IDiagramUIModel> diagrams;
+    private final Set<IModelElement> elements;
+    private IProject project;
+
+    public VpChangeListener(LiveTransformation live) {
+        this.live = live;
+        diagrams = Collections.newSetFromMap(new IdentityHashMap<IDiagramUIModel, Boolean>());
+        elements = Collections.newSetFromMap(new IdentityHashMap<IModelElement, Boolean>());
+    }
+
+    public synchronized void attach(IProject project) {
+        detach();
+        this.project = project;
+        project.addProjectListener(this);
+        project.addProjectModelListener(this);
+        project.addProjectDiagramListener(this);
+        Iterator diagramIter = project.diagramIterator();
+        while (diagramIter.hasNext())
+            watchDiagram((IDiagramUIModel) diagramIter.next());
+    }
+
+    public synchronized void detach() {
+        if (project == null)
+            return;
+        for (IModelElement element : elements)
+            element.removePropertyChangeListener(this);
+        elements.clear();
+        for (IDiagramUIModel diagram : diagrams)
+            diagram.removeDiagramListener(this);
+        diagrams.clear();
+        project.removeProjectDiagramListener(this);
+        project.removeProjectModelListener(this);
+        project.removeProjectListener(this);
+        project = null;
+    }
+
+    private void watchDiagram(IDiagramUIModel diagram) {
+        if (!diagrams.add(diagram))
+            return;
+        diagram.addDiagramListener(this);
+        Iterator diagramElementIter = diagram.diagramElementIterator();
+        while (diagramElementIter.hasNext())
+            watchElement(((IDiagramElement) diagramElementIter.next()).getModelElement());
+    }
+
+    private void watchElement(IModelElement element) {
+        if (element == null)
+            return;
+        if (element instanceof IClass) {
+            watch(element);
+            Iterator attributeIter = ((IClass) element).attributeIterator();
+            while (attributeIter.hasNext())
+                watch((IModelElement) attributeIter.next());
+        } else if (element instanceof IRelationship) {
+            watch(element);
+            if (element instanceof IEndRelationship) {
+                watch(((IEndRelationship) element).getFromEnd());
+                watch(((IEndRelationship) element).getToEnd());
+            }
+        }
+    }
+
+    private void watch(IModelElement element) {
+        if (element != null && elements.add(element))
+            element.addPropertyChangeListener(this);
+    }
+
+    private void unwatch(IModelElement element) {
+        if (elements.remove(element))
+            element.removePropertyChangeListener(this);
+    }
+
+    /**
+     * Reports a change of {@code element} for the classes it belongs to or connects.
+     */
+    private void changed(IModelElement element) {
+        ArrayList<String> classIds = new ArrayList<>();
+        if (element instanceof IRelationshipEnd && ((IRelationshipEnd) element).getEndRelationship() != null)
+            element = ((IRelationshipEnd) element).getEndRelationship();
+        if (element instanceof IClass) {
+            classIds.add(element.getId());
+        } else if (element instanceof IAttribute && element.getParent() instanceof IClass) {
+            classIds.add(element.getParent().getId());
+        } else if (element instanceof IRelationship) {
+            IModelElement from = ((IRelationship) element).getFrom();
+            IModelElement to = ((IRelationship) element).getTo();
+            if (from instanceof IClass)
+                classIds.add(from.getId());
+            if (to instanceof IClass)
+                classIds.add(to.getId());
+        }
+        if (classIds.isEmpty()) {
+            live.projectChanged();
+            return;
+        }
+        for (String classId : classIds)
+            live.classChanged(classId);
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent event) {
+        if (event.getSource() instanceof IModelElement)
+            changed((IModelElement) event.getSource());
+    }
+
+    @Override
+    public synchronized void modelAdded(IProject project, IModelElement modelElement) {
+        watchElement(modelElement);
+        if (modelElement instanceof IAttribute)
+            watch(modelElement);
+        changed(modelElement);
+    }
+
+    @Override
+    public synchronized void modelRemoved(IProject project, IModelElement modelElement) {
+        unwatch(modelElement);
+        changed(modelElement);
+    }
+
+    @Override
+    public synchronized void diagramAdded(IProject project, IDiagramUIModel diagram) {
+        watchDiagram(diagram);
+        live.diagramChanged(diagram.getId());
+    }
+
+    @Override
+    public synchronized void diagramRemoved(IProject project, IDiagramUIModel diagram) {
+        if (diagrams.remove(diagram))
+            diagram.removeDiagramListener(this);
+        live.projectChanged();
+    }
+
+    @Override
+    public synchronized void diagramElementAdded(IDiagramUIModel diagram, IDiagramElement diagramElement) {
+        watchElement(diagramElement.getModelElement());
+        live.diagramChanged(diagram.getId());
+        if (diagramElement.getModelElement() != null)
+            changed(diagramElement.getModelElement());
+    }
+
+    @Override
+    public synchronized void diagramElementRemoved(IDiagramUIModel diagram, IDiagramElement diagramElement) {
+        live.diagramChanged(diagram.getId());
+    }
+
+    @Override
+    public void diagramUIModelLoaded(IDiagramUIModel diagram) {
+
+    }
+
+    @Override
+    public void diagramUIModelPropertyChanged(IDiagramUIModel diagram, String propertyName, Object oldValue, Object newValue) {
+
+    }
+
+    @Override
+    public void diagramUIModelRenamed(IDiagramUIModel diagram) {
+        live.projectChanged();
+    }
+
+    @Override
+    public void projectAfterOpened(IProject project) {
+        attach(project);
+        live.projectChanged();
+    }
+
+    @Override
+    public void projectNewed(IProject project) {
+        attach(project);
+        live.projectChanged();
+    }
+
+    @Override
+    public void projectOpened(IProject project) {
+
+    }
+
+    @Override
+    public void projectPreClose(IProject project) {
+
+    }
+
+    @Override
+    public void projectRenamed(IProject project) {
+
+    }
+
+    @Override
+    public void projectSaved(IProject project) {
+
+    }
+
+    @Override
+    public boolean projectPreSave(IProject project) {
+        return true;
+    }
+}
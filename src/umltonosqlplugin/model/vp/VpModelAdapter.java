@@ -0,0 +1,301 @@
+package umltonosqlplugin.model.vp;
+
+import com.vp.plugin.diagram.IDiagramElement;
+import com.vp.plugin.diagram.IDiagramUIModel;
+import com.vp.plugin.model.*;
+import umltonosqlplugin.metrics.ApiCalls;
+import umltonosqlplugin.model.*;
+
+import java.util.*;
+
+/**
+ * Exposes a Visual Paradigm project through the model interfaces. Every VP element is wrapped once, so wrappers
+ * can be compared and used as keys, and its contents are read from the VP API on first use only.
+ */
+public class VpModelAdapter implements ModelProject {
+
+    private final IProject project;
+    private final HashMap<Object, Object> wrappers;
+    private List<ModelDiagram> diagrams;
+
+    public VpModelAdapter(IProject project) {
+        this.project = project;
+        wrappers = new HashMap<>();
+    }
+
+    @Override
+    public synchronized List<ModelDiagram> getDiagrams() {
+        if (diagrams == null) {
+            ArrayList<ModelDiagram> result = new ArrayList<>();
+            ApiCalls.increment();
+            Iterator diagramIter = project.diagramIterator();
+            while (diagramIter.hasNext())
+                result.add(new VpDiagram((IDiagramUIModel) diagramIter.next()));
+            diagrams = Collections.unmodifiableList(result);
+        }
+        return diagrams;
+    }
+
+    private synchronized VpClass wrap(IClass iClass) {
+        VpClass wrapper = (VpClass) wrappers.get(iClass);
+        if (wrapper == null) {
+            wrapper = new VpClass(iClass);
+            wrappers.put(iClass, wrapper);
+        }
+        return wrapper;
+    }
+
+    private synchronized VpAssociation wrap(IAssociation association) {
+        VpAssociation wrapper = (VpAssociation) wrappers.get(association);
+        if (wrapper == null) {
+            wrapper = new VpAssociation(association);
+            wrappers.put(association, wrapper);
+        }
+        return wrapper;
+    }
+
+    private synchronized VpAssociationEnd wrap(IAssociationEnd end) {
+        VpAssociationEnd wrapper = (VpAssociationEnd) wrappers.get(end);
+        if (wrapper == null) {
+            wrapper = new VpAssociationEnd(end);
+            wrappers.put(end, wrapper);
+        }
+        return wrapper;
+    }
+
+    private class VpDiagram implements ModelDiagram {
+
+        private final IDiagramUIModel diagram;
+        private List<ModelClass> classes;
+
+        private VpDiagram(IDiagramUIModel diagram) {
+            this.diagram = diagram;
+        }
+
+        @Override
+        public String getId() {
+            return diagram.getId();
+        }
+
+        @Override
+        public String getName() {
+            return diagram.getName();
+        }
+
+        @Override
+        public String getType() {
+            return diagram.getType();
+        }
+
+        @Override
+        public synchronized List<ModelClass> getClasses() {
+            if (classes == null) {
+                ArrayList<ModelClass> result = new ArrayList<>();
+                ApiCalls.increment();
+                Iterator diagramElementIter = diagram.diagramElementIterator();
+                while (diagramElementIter.hasNext()) {
+                    IDiagramElement diagramElement = (IDiagramElement) diagramElementIter.next();
+                    IModelElement modelElement = diagramElement.getModelElement();
+                    if (modelElement.getModelType().equals("Class"))
+                        result.add(wrap((IClass) modelElement));
+                }
+                classes = Collections.unmodifiableList(result);
+            }
+            return classes;
+        }
+    }
+
+    private class VpClass implements ModelClass {
+
+        private final IClass iClass;
+        private List<String> stereotypes;
+        private List<String> enumerationLiterals;
+        private List<ModelAttribute> attributes;
+        private List<ModelClass> subClasses;
+        private List<ModelAssociation> associationsAsClass;
+        private List<ModelAssociationEnd> associationEnds;
+
+        private VpClass(IClass iClass) {
+            this.iClass = iClass;
+        }
+
+        @Override
+        public String getId() {
+            return iClass.getId();
+        }
+
+        @Override
+        public String getName() {
+            return iClass.getName();
+        }
+
+        @Override
+        public synchronized List<String> getStereotypes() {
+            if (stereotypes == null) {
+                ArrayList<String> result = new ArrayList<>();
+                ApiCalls.increment();
+                Iterator stereotypeIter = iClass.stereotypeIterator();
+                while (stereotypeIter.hasNext())
+                    result.add((String) stereotypeIter.next());
+                stereotypes = Collections.unmodifiableList(result);
+            }
+            return stereotypes;
+        }
+
+        @Override
+        public synchronized List<String> getEnumerationLiterals() {
+            if (enumerationLiterals == null) {
+                ArrayList<String> result = new ArrayList<>();
+                ApiCalls.increment();
+                Iterator enumLiteralIter = iClass.enumerationLiteralIterator();
+                while (enumLiteralIter.hasNext())
+                    result.add(((IEnumerationLiteral) enumLiteralIter.next()).getName());
+                enumerationLiterals = Collections.unmodifiableList(result);
+            }
+            return enumerationLiterals;
+        }
+
+        @Override
+        public synchronized List<ModelAttribute> getAttributes() {
+            if (attributes == null) {
+                ArrayList<ModelAttribute> result = new ArrayList<>();
+                ApiCalls.increment();
+                Iterator attributeIter = iClass.attributeIterator();
+                while (attributeIter.hasNext())
+                    result.add(new VpAttribute((IAttribute) attributeIter.next()));
+                attributes = Collections.unmodifiableList(result);
+            }
+            return attributes;
+        }
+
+        @Override
+        public List<ModelClass> getSubClasses() {
+            readFromRelationships();
+            return subClasses;
+        }
+
+        @Override
+        public List<ModelAssociation> getAssociationsAsClass() {
+            readFromRelationships();
+            return associationsAsClass;
+        }
+
+        @Override
+        public synchronized List<ModelAssociationEnd> getAssociationEnds() {
+            if (associationEnds == null) {
+                ArrayList<ModelAssociationEnd> result = new ArrayList<>();
+                ApiCalls.increment();
+                Iterator assoIter = iClass.fromRelationshipEndIterator();
+                while (assoIter.hasNext())
+                    result.add(wrap((IAssociationEnd) assoIter.next()));
+                associationEnds = Collections.unmodifiableList(result);
+            }
+            return associationEnds;
+        }
+
+        private synchronized void readFromRelationships() {
+            if (subClasses != null)
+                return;
+            ArrayList<ModelClass> classes = new ArrayList<>();
+            ArrayList<ModelAssociation> associations = new ArrayList<>();
+            ApiCalls.increment();
+            Iterator genIter = iClass.fromRelationshipIterator();
+            while (genIter.hasNext()) {
+                IRelationship relationship = (IRelationship) genIter.next();
+                IModelElement otherModel = relationship.getTo();
+                if (otherModel.getModelType().equals("Association"))
+                    associations.add(wrap((IAssociation) otherModel));
+                else if (otherModel.getModelType().equals("Class"))
+                    classes.add(wrap((IClass) otherModel));
+            }
+            associationsAsClass = Collections.unmodifiableList(associations);
+            subClasses = Collections.unmodifiableList(classes);
+        }
+    }
+
+    private static class VpAttribute implements ModelAttribute {
+
+        private static final String DATA_TYPE_CLASS = "v.bei.bau";
+
+        private final String name;
+        private final boolean id;
+        private final String typeName;
+        private final boolean dataType;
+
+        private VpAttribute(IAttribute attribute) {
+            name = attribute.getName();
+            id = attribute.isID();
+            Object type = attribute.getType();
+            typeName = String.valueOf(type);
+            dataType = type != null && type.getClass().getName().equals(DATA_TYPE_CLASS);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isID() {
+            return id;
+        }
+
+        @Override
+        public String getTypeName() {
+            return typeName;
+        }
+
+        @Override
+        public boolean isDataType() {
+            return dataType;
+        }
+    }
+
+    private class VpAssociation implements ModelAssociation {
+
+        private final IAssociation association;
+
+        private VpAssociation(IAssociation association) {
+            this.association = association;
+        }
+
+        @Override
+        public ModelClass getFrom() {
+            return wrap((IClass) association.getFrom());
+        }
+
+        @Override
+        public ModelClass getTo() {
+            return wrap((IClass) association.getTo());
+        }
+    }
+
+    private class VpAssociationEnd implements ModelAssociationEnd {
+
+        private final IAssociationEnd end;
+
+        private VpAssociationEnd(IAssociationEnd end) {
+            this.end = end;
+        }
+
+        @Override
+        public String getAggregationKind() {
+            return end.getAggregationKind();
+        }
+
+        @Override
+        public String getMultiplicity() {
+            return end.getMultiplicity();
+        }
+
+        @Override
+        public ModelClass getModelClass() {
+            return wrap((IClass) end.getModelElement());
+        }
+
+        @Override
+        public ModelAssociationEnd getOppositeEnd() {
+            return wrap((IAssociationEnd) end.getEndRelationship().getToEnd());
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package umltonosqlplugin.model.xmi;
+
+import umltonosqlplugin.model.ModelDiagram;
+import umltonosqlplugin.model.memory.MemoryAssociation;
+import umltonosqlplugin.model.memory.MemoryClass;
+import umltonosqlplugin.model.memory.MemoryDiagram;
+import umltonosqlplugin.model.memory.MemoryProject;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Reads an XMI 2.x export of a UML model into a {@link MemoryProject}, so it can be transformed without a modelling
+ * tool. The document is streamed with StAX and only the parts the transformation uses are kept: classes,
+ * enumerations, attributes, binary associations between classes, association classes, generalizations, applied
+ * stereotypes and primitive and data types. References are resolved once the whole document has been read.
+ * <p>
+ * The model is given the shape Visual Paradigm gives it: an association goes from the type of its first member end
+ * to the type of the second, and each end has the multiplicity of the property typed by its class and the
+ * aggregation of the opposite property, so a composite part property puts {@code Composited} on the end of the
+ * whole. Attributes typed by a primitive or data type are data types. Diagrams are read from the UML diagram
+ * interchange elements, such as {@code UMLClassDiagram}, with the classes their shapes show; as in Visual Paradigm,
+ * classes shown only on other kinds of diagrams take part in the relationships but are not transformed. A document
+ * without diagrams gets a single class diagram with every class, named after the model. Tool extensions
+ * ({@code xmi:Extension}) are skipped.
+ */
+public class XmiModelReader {
+
+    private static final String ENUMERATION_STEREOTYPE = "enumeration";
+    private static final String DIAGRAM_PREFIX = "UML";
+    private static final String DIAGRAM_SUFFIX = "Diagram";
+
+    public MemoryProject read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in, extension > 0 ? name.substring(0, extension) : name);
+        }
+    }
+
+    /**
+     * Reads the document from {@code in}; {@code name} names the diagram of a document without diagrams, when the
+     * model has no name either.
+     */
+    public MemoryProject read(InputStream in, String name) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        Document document = new Document();
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            document.parse(reader);
+        } catch (XMLStreamException e) {
+            throw new IOException(name + ": " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // the stream itself is closed by the caller
+                }
+            }
+        }
+        return document.build(name);
+    }
+
+    private static boolean isXmi(String namespace) {
+        return namespace != null && namespace.contains("/XMI");
+    }
+
+    private static boolean isUml(String namespace) {
+        return namespace != null && namespace.contains("/UML");
+    }
+
+    private static String localPart(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.indexOf(':') + 1);
+    }
+
+    private static String xmiAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeLocalName(i).equals(name)
+                    && (isXmi(reader.getAttributeNamespace(i)) || "xmi".equals(reader.getAttributePrefix(i))))
+                return reader.getAttributeValue(i);
+        }
+        return null;
+    }
+
+    private static String attribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (reader.getAttributeLocalName(i).equals(name) && (namespace == null || namespace.isEmpty()))
+                return reader.getAttributeValue(i);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the id an element refers to with {@code xmi:idref}, or the fragment of its {@code href}.
+     */
+    private static String reference(XMLStreamReader reader) {
+        String idref = xmiAttribute(reader, "idref");
+        if (idref != null)
+            return idref;
+        String href = attribute(reader, "href");
+        return href != null ? href.substring(href.indexOf('#') + 1) : null;
+    }
+
+    private static List<String> references(String value) {
+        ArrayList<String> ids = new ArrayList<>();
+        if (value != null) {
+            for (String id : value.trim().split("\\s+")) {
+                if (!id.isEmpty())
+                    ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private enum Kind {
+        CLASS, ASSOCIATION, PROPERTY, GENERALIZATION, DIAGRAM, SHAPE, OTHER
+    }
+
+    private static class Frame {
+
+        private final Kind kind;
+        private final Object record;
+        private String modelElement;
+
+        private Frame(Kind kind, Object record) {
+            this.kind = kind;
+            this.record = record;
+        }
+    }
+
+    private static class ClassRecord {
+
+        private final String name;
+        private final ArrayList<String> stereotypes = new ArrayList<>();
+        private final ArrayList<String> literals = new ArrayList<>();
+        private final ArrayList<String> generals = new ArrayList<>();
+        private final ArrayList<PropertyRecord> properties = new ArrayList<>();
+        private AssociationRecord association;
+        private MemoryClass memoryClass;
+
+        private ClassRecord(String name) {
+            this.name = name != null ? name : "";
+        }
+    }
+
+    private static class PropertyRecord {
+
+        private final String name;
+        private final String aggregation;
+        private final boolean id;
+        private String type;
+        private boolean typeHref;
+        private String association;
+        private String lower;
+        private String upper;
+
+        private PropertyRecord(String name, String aggregation, boolean id) {
+            this.name = name != null ? name : "";
+            this.aggregation = aggregation;
+            this.id = id;
+        }
+    }
+
+    private static class AssociationRecord {
+
+        private final ArrayList<String> memberEnds = new ArrayList<>();
+        private final ArrayList<PropertyRecord> ownedEnds = new ArrayList<>();
+    }
+
+    private static class DiagramRecord {
+
+        private final String name;
+        private final String type;
+        private final ArrayList<String> elements = new ArrayList<>();
+
+        private DiagramRecord(String name, String type) {
+            this.name = name != null ? name : "";
+            this.type = type;
+        }
+    }
+
+    /**
+     * State of one read: the records of the elements found so far, by id, and the elements being read.
+     */
+    private static class Document {
+
+        private final LinkedHashMap<String, ClassRecord> classes = new LinkedHashMap<>();
+        private final LinkedHashMap<String, AssociationRecord> associations = new LinkedHashMap<>();
+        private final HashMap<String, PropertyRecord> properties = new HashMap<>();
+        private final HashMap<String, String> dataTypes = new HashMap<>();
+        private final HashMap<String, ArrayList<String>> stereotypes = new HashMap<>();
+        private final ArrayList<DiagramRecord> diagrams = new ArrayList<>();
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+        private String modelName;
+        private int skipped;
+
+        private void parse(XMLStreamReader reader) throws XMLStreamException {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (skipped > 0 || (reader.getLocalName().equals("Extension") && isXmi(reader.getNamespaceURI())))
+                        skipped++;
+                    else
+                        frames.push(start(reader));
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (skipped > 0)
+                        skipped--;
+                    else
+                        frames.pop();
+                }
+            }
+        }
+
+        private Frame start(XMLStreamReader reader) {
+            Frame parent = frames.peek();
+            Kind parentKind = parent != null ? parent.kind : Kind.OTHER;
+            String tag = reader.getLocalName();
+            String xmiType = xmiAttribute(reader, "type");
+            String type = xmiType != null ? localPart(xmiType) : isUml(reader.getNamespaceURI()) ? tag : "";
+            String id = xmiAttribute(reader, "id");
+            switch (parentKind) {
+                case PROPERTY:
+                    return startPropertyChild(reader, tag, (PropertyRecord) parent.record);
+                case GENERALIZATION:
+                    if (tag.equals("general"))
+                        addGeneral((ClassRecord) parent.record, reference(reader));
+                    return new Frame(Kind.OTHER, null);
+                case ASSOCIATION:
+                    if (tag.equals("memberEnd")) {
+                        ((AssociationRecord) parent.record).memberEnds.add(reference(reader));
+                        return new Frame(Kind.OTHER, null);
+                    }
+                    break;
+                case CLASS:
+                    if (tag.equals("ownedLiteral") || type.equals("EnumerationLiteral")) {
+                        String literal = attribute(reader, "name");
+                        ((ClassRecord) parent.record).literals.add(literal != null ? literal : "");
+                        return new Frame(Kind.OTHER, null);
+                    }
+                    if (tag.equals("generalization") || type.equals("Generalization")) {
+                        addGeneral((ClassRecord) parent.record, attribute(reader, "general"));
+                        return new Frame(Kind.GENERALIZATION, parent.record);
+                    }
+                    break;
+                case DIAGRAM:
+                case SHAPE:
+                    if (tag.equals("modelElement")) {
+                        addModelElement(parent, reference(reader));
+                        return new Frame(Kind.OTHER, null);
+                    }
+                    Frame shape = new Frame(Kind.SHAPE, parent.record);
+                    addModelElement(shape, attribute(reader, "modelElement"));
+                    return shape;
+            }
+            switch (type) {
+                case "Model":
+                    if (modelName == null)
+                        modelName = attribute(reader, "name");
+                    break;
+                case "Class":
+                case "Enumeration":
+                case "AssociationClass":
+                    return startClass(reader, id, type);
+                case "Association":
+                    return startAssociation(reader, id, null);
+                case "Property":
+                    if (parentKind == Kind.CLASS || parentKind == Kind.ASSOCIATION)
+                        return startProperty(reader, id, tag, parent);
+                    break;
+                case "PrimitiveType":
+                case "DataType":
+                    if (id != null)
+                        dataTypes.put(id, nameOf(reader));
+                    break;
+                default:
+                    if (type.startsWith(DIAGRAM_PREFIX) && type.endsWith(DIAGRAM_SUFFIX)) {
+                        DiagramRecord diagram = new DiagramRecord(attribute(reader, "name"), type.substring(DIAGRAM_PREFIX.length()));
+                        diagrams.add(diagram);
+                        return new Frame(Kind.DIAGRAM, diagram);
+                    }
+                    if ((tag.equals("ownedAttribute") || tag.equals("ownedEnd"))
+                            && (parentKind == Kind.CLASS || parentKind == Kind.ASSOCIATION))
+                        return startProperty(reader, id, tag, parent);
+                    if (!isUml(reader.getNamespaceURI()) && !isXmi(reader.getNamespaceURI()))
+                        addStereotypeApplication(reader, tag);
+            }
+            return new Frame(Kind.OTHER, null);
+        }
+
+        private Frame startClass(XMLStreamReader reader, String id, String type) {
+            ClassRecord record = new ClassRecord(attribute(reader, "name"));
+            if (type.equals("Enumeration"))
+                record.stereotypes.add(ENUMERATION_STEREOTYPE);
+            if (id == null)
+                id = "#" + classes.size();
+            classes.put(id, record);
+            if (type.equals("AssociationClass"))
+                startAssociation(reader, id, record);
+            return new Frame(Kind.CLASS, record);
+        }
+
+        private Frame startAssociation(XMLStreamReader reader, String id, ClassRecord classRecord) {
+            AssociationRecord record = new AssociationRecord();
+            record.memberEnds.addAll(references(attribute(reader, "memberEnd")));
+            if (id != null)
+                associations.put(id, record);
+            if (classRecord != null)
+                classRecord.association = record;
+            return new Frame(Kind.ASSOCIATION, record);
+        }
+
+        private Frame startProperty(XMLStreamReader reader, String id, String tag, Frame owner) {
+            PropertyRecord record = new PropertyRecord(attribute(reader, "name"), attribute(reader, "aggregation"),
+                    "true".equals(attribute(reader, "isID")));
+            record.type = attribute(reader, "type");
+            record.association = attribute(reader, "association");
+            if (id != null)
+                properties.put(id, record);
+            if (owner.kind == Kind.CLASS) {
+                ClassRecord classRecord = (ClassRecord) owner.record;
+                if (classRecord.association != null && tag.equals("ownedEnd"))
+                    classRecord.association.ownedEnds.add(record);
+                else
+                    classRecord.properties.add(record);
+            } else {
+                ((AssociationRecord) owner.record).ownedEnds.add(record);
+            }
+            return new Frame(Kind.PROPERTY, record);
+        }
+
+        private Frame startPropertyChild(XMLStreamReader reader, String tag, PropertyRecord property) {
+            switch (tag) {
+                case "type":
+                    property.type = reference(reader);
+                    property.typeHref = xmiAttribute(reader, "idref") == null;
+                    break;
+                case "lowerValue":
+                    property.lower = valueOf(reader);
+                    break;
+                case "upperValue":
+                    property.upper = valueOf(reader);
+                    break;
+                case "association":
+                    property.association = reference(reader);
+                    break;
+            }
+            return new Frame(Kind.OTHER, null);
+        }
+
+        /**
+         * Returns the value of a literal; XMI leaves out a value equal to the default of {@code 0}.
+         */
+        private static String valueOf(XMLStreamReader reader) {
+            String value = attribute(reader, "value");
+            return value != null ? value.trim() : "0";
+        }
+
+        private static String nameOf(XMLStreamReader reader) {
+            String name = attribute(reader, "name");
+            return name != null ? name : "";
+        }
+
+        private void addGeneral(ClassRecord specific, String general) {
+            if (general != null)
+                specific.generals.add(general);
+        }
+
+        /**
+         * Adds the class a diagram element shows to its diagram, unless an enclosing element already shows it, as
+         * the labels and compartments of a class shape do.
+         */
+        private void addModelElement(Frame frame, String element) {
+            if (element == null)
+                return;
+            frame.modelElement = element;
+            for (Frame enclosing : frames) {
+                if (enclosing.kind != Kind.SHAPE)
+                    break;
+                if (enclosing != frame && element.equals(enclosing.modelElement))
+                    return;
+            }
+            ((DiagramRecord) frame.record).elements.add(element);
+        }
+
+        private void addStereotypeApplication(XMLStreamReader reader, String stereotype) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (!reader.getAttributeLocalName(i).startsWith("base_"))
+                    continue;
+                for (String base : references(reader.getAttributeValue(i))) {
+                    ArrayList<String> applied = stereotypes.get(base);
+                    if (applied == null) {
+                        applied = new ArrayList<>();
+                        stereotypes.put(base, applied);
+                    }
+                    applied.add(stereotype);
+                }
+            }
+        }
+
+        private MemoryProject build(String name) {
+            for (Map.Entry<String, ClassRecord> entry : classes.entrySet()) {
+                ClassRecord record = entry.getValue();
+                MemoryClass memoryClass = new MemoryClass(record.name);
+                for (String stereotype : record.stereotypes)
+                    memoryClass.addStereotype(stereotype);
+                ArrayList<String> applied = stereotypes.get(entry.getKey());
+                if (applied != null) {
+                    for (String stereotype : applied)
+                        memoryClass.addStereotype(stereotype);
+                }
+                for (String literal : record.literals)
+                    memoryClass.addEnumerationLiteral(literal);
+                record.memoryClass = memoryClass;
+            }
+            for (ClassRecord record : classes.values())
+                addAttributes(record);
+            for (ClassRecord record : classes.values()) {
+                for (String general : record.generals) {
+                    ClassRecord generalRecord = classes.get(general);
+                    if (generalRecord != null)
+                        generalRecord.memoryClass.addSubClass(record.memoryClass);
+                }
+            }
+            HashMap<AssociationRecord, MemoryAssociation> associated = new HashMap<>();
+            for (AssociationRecord record : associations.values()) {
+                MemoryAssociation association = associate(record);
+                if (association != null)
+                    associated.put(record, association);
+            }
+            for (ClassRecord record : classes.values()) {
+                MemoryAssociation association = associated.get(record.association);
+                if (association != null)
+                    record.memoryClass.addAssociationAsClass(association);
+            }
+            return createDiagrams(name);
+        }
+
+        private void addAttributes(ClassRecord record) {
+            for (PropertyRecord property : record.properties) {
+                if (property.association != null)
+                    continue;
+                String typeName;
+                boolean dataType;
+                ClassRecord typeClass = property.typeHref ? null : classes.get(property.type);
+                if (property.type == null) {
+                    typeName = String.valueOf((Object) null);
+                    dataType = false;
+                } else if (typeClass != null) {
+                    typeName = typeClass.name;
+                    dataType = false;
+                } else if (dataTypes.containsKey(property.type)) {
+                    typeName = dataTypes.get(property.type);
+                    dataType = true;
+                } else {
+                    typeName = property.type;
+                    dataType = property.typeHref;
+                }
+                if (property.id)
+                    record.memoryClass.addIdAttribute(property.name, typeName, dataType);
+                else
+                    record.memoryClass.addAttribute(property.name, typeName, dataType);
+            }
+        }
+
+        /**
+         * Creates the association of a binary association between two classes; others are left out.
+         */
+        private MemoryAssociation associate(AssociationRecord record) {
+            ArrayList<PropertyRecord> ends = new ArrayList<>();
+            for (String memberEnd : record.memberEnds) {
+                PropertyRecord end = properties.get(memberEnd);
+                if (end != null)
+                    ends.add(end);
+            }
+            if (ends.isEmpty())
+                ends.addAll(record.ownedEnds);
+            if (ends.size() != 2)
+                return null;
+            PropertyRecord fromEnd = ends.get(0);
+            PropertyRecord toEnd = ends.get(1);
+            ClassRecord from = fromEnd.typeHref ? null : classes.get(fromEnd.type);
+            ClassRecord to = toEnd.typeHref ? null : classes.get(toEnd.type);
+            if (from == null || to == null)
+                return null;
+            return MemoryAssociation.associate(from.memoryClass, aggregationKind(toEnd), multiplicity(fromEnd),
+                    to.memoryClass, aggregationKind(fromEnd), multiplicity(toEnd));
+        }
+
+        private static String aggregationKind(PropertyRecord property) {
+            if ("composite".equals(property.aggregation))
+                return "Composited";
+            if ("shared".equals(property.aggregation))
+                return "Shared";
+            return "None";
+        }
+
+        /**
+         * Returns the multiplicity in the notation of Visual Paradigm, such as {@code 1}, {@code 0..1} or
+         * {@code 1..*}. A missing bound is {@code 1}, the UML default, so a property without bounds is {@code 1}.
+         */
+        private static String multiplicity(PropertyRecord property) {
+            String lower = property.lower != null ? property.lower : "1";
+            String upper = property.upper != null ? property.upper : "1";
+            if (upper.equals("-1"))
+                upper = "*";
+            return lower.equals(upper) ? upper : lower + ".." + upper;
+        }
+
+        private MemoryProject createDiagrams(String name) {
+            MemoryProject project = new MemoryProject();
+            if (diagrams.isEmpty()) {
+                MemoryDiagram diagram = project.addDiagram(modelName != null ? modelName : name, ModelDiagram.CLASS_DIAGRAM);
+                for (ClassRecord record : classes.values())
+                    diagram.addClass(record.memoryClass);
+                return project;
+            }
+            for (DiagramRecord record : diagrams) {
+                MemoryDiagram diagram = project.addDiagram(record.name, record.type);
+                for (String element : record.elements) {
+                    ClassRecord classRecord = classes.get(element);
+                    if (classRecord != null)
+                        diagram.addClass(classRecord.memoryClass);
+                }
+            }
+            return project;
+        }
+    }
+}
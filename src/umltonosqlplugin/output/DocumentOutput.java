@@ -0,0 +1,18 @@
+package umltonosqlplugin.output;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destination of the documents flushed by a {@link JsonDocumentBuilder}.
+ */
+public interface DocumentOutput {
+
+    boolean exists(Path path);
+
+    void create(Path path, String content) throws IOException;
+
+    void append(Path path, String content) throws IOException;
+
+    void delete(Path path) throws IOException;
+}
@@ -0,0 +1,43 @@
+package umltonosqlplugin.output;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes documents straight to the file system.
+ */
+public class FileDocumentOutput implements DocumentOutput {
+
+    @Override
+    public boolean exists(Path path) {
+        return Files.isRegularFile(path);
+    }
+
+    @Override
+    public void create(Path path, String content) throws IOException {
+        write(path, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void append(Path path, String content) throws IOException {
+        write(path, content, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        Files.delete(path);
+    }
+
+    private static void write(Path path, String content, StandardOpenOption... options) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset(), options)) {
+            writer.write(content);
+        }
+    }
+}
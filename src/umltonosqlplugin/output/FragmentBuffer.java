@@ -0,0 +1,76 @@
+package umltonosqlplugin.output;
+
+/**
+ * Reusable character buffer for rendering JSON fragments, one per thread. {@link #get()} hands out the buffer of
+ * the current thread emptied, so rendering a fragment allocates nothing but the final {@link #toString()}; the
+ * buffer keeps its capacity between fragments, up to {@value #MAX_RETAINED_CAPACITY} characters.
+ * <p>
+ * A fragment has to be turned into a string before the next {@link #get()} on the same thread.
+ */
+public final class FragmentBuffer {
+
+    public static final int INITIAL_CAPACITY = 1024;
+    public static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private static final ThreadLocal<FragmentBuffer> BUFFERS = ThreadLocal.withInitial(FragmentBuffer::new);
+
+    private char[] chars;
+    private int length;
+
+    private FragmentBuffer() {
+        chars = new char[INITIAL_CAPACITY];
+    }
+
+    public static FragmentBuffer get() {
+        FragmentBuffer buffer = BUFFERS.get();
+        if (buffer.chars.length > MAX_RETAINED_CAPACITY)
+            buffer.chars = new char[INITIAL_CAPACITY];
+        buffer.length = 0;
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public FragmentBuffer append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+        return this;
+    }
+
+    public FragmentBuffer append(String text) {
+        int textLength = text.length();
+        ensureCapacity(length + textLength);
+        text.getChars(0, textLength, chars, length);
+        length += textLength;
+        return this;
+    }
+
+    /**
+     * Appends {@code indent"key": }, the start of a member whose value follows.
+     */
+    public FragmentBuffer key(String indent, String key) {
+        return append(indent).append('"').append(key).append("\": ");
+    }
+
+    /**
+     * Appends {@code indent"key": "value"}.
+     */
+    public FragmentBuffer member(String indent, String key, String value) {
+        return key(indent, key).append('"').append(value).append('"');
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= chars.length)
+            return;
+        char[] grown = new char[Math.max(capacity, chars.length * 2)];
+        System.arraycopy(chars, 0, grown, 0, length);
+        chars = grown;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
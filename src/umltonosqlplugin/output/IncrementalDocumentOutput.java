@@ -0,0 +1,221 @@
+package umltonosqlplugin.output;
+
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.metrics.RunMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps every document of a run in memory and, on {@link #commit(Path, boolean, Metrics)}, writes only the files
+ * whose content changed since the previous run. Each diagram folder holds a {@value #MANIFEST} with the content hash
+ * of every generated file, so unchanged files are skipped, keeping their modification time, and files that are no
+ * longer generated are removed. A commit of the whole project also removes every other document under the root
+ * directory, as a full run does. Only the commit touches the disk, so only the commit is metered.
+ */
+public class IncrementalDocumentOutput implements DocumentOutput {
+
+    public static final String MANIFEST = "manifest.json";
+
+    private static final Pattern MANIFEST_ENTRY = Pattern.compile("^\\t\\t(\"(?:[^\"\\\\]|\\\\[\"\\\\/bfnrt]|\\\\u[0-9a-fA-F]{4})*\"): \"([0-9a-f]{64})\",?$");
+
+    private final LinkedHashMap<Path, StringBuilder> contents;
+    private final Charset charset;
+    private int written;
+    private int skipped;
+    private int deleted;
+
+    public IncrementalDocumentOutput() {
+        contents = new LinkedHashMap<>();
+        charset = Charset.defaultCharset();
+    }
+
+    @Override
+    public boolean exists(Path path) {
+        return contents.containsKey(path);
+    }
+
+    @Override
+    public void create(Path path, String content) {
+        contents.put(path, new StringBuilder(content));
+    }
+
+    @Override
+    public void append(Path path, String content) throws IOException {
+        StringBuilder current = contents.get(path);
+        if (current == null)
+            throw new NoSuchFileException(path.toString());
+        current.append(content);
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        if (contents.remove(path) == null)
+            throw new NoSuchFileException(path.toString());
+    }
+
+    /**
+     * Writes the changed files of every folder generated in this run and counts the files written and deleted in
+     * {@code metrics}. Only with {@code wholeProject} are the documents under {@code rootDir} that this run did not
+     * generate removed, along with the folders left empty, so a run over some of the diagrams keeps the others.
+     */
+    public void commit(Path rootDir, boolean wholeProject, Metrics metrics) throws IOException {
+        LinkedHashMap<Path, LinkedHashMap<String, StringBuilder>> folders = new LinkedHashMap<>();
+        for (Map.Entry<Path, StringBuilder> entry : contents.entrySet()) {
+            Path folder = entry.getKey().toAbsolutePath().normalize().getParent();
+            LinkedHashMap<String, StringBuilder> files = folders.get(folder);
+            if (files == null) {
+                files = new LinkedHashMap<>();
+                folders.put(folder, files);
+            }
+            files.put(entry.getKey().getFileName().toString(), entry.getValue());
+        }
+        for (Map.Entry<Path, LinkedHashMap<String, StringBuilder>> folder : folders.entrySet())
+            commitFolder(folder.getKey(), folder.getValue(), metrics);
+        if (wholeProject)
+            removeStaleDocuments(rootDir.toAbsolutePath().normalize(), folders, metrics);
+        contents.clear();
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    private void commitFolder(Path folder, LinkedHashMap<String, StringBuilder> files, Metrics metrics) throws IOException {
+        Map<String, String> previous = readManifest(folder.resolve(MANIFEST));
+        LinkedHashMap<String, String> hashes = new LinkedHashMap<>();
+        int folderWritten = 0;
+        int folderSkipped = 0;
+        int folderDeleted = 0;
+        for (Map.Entry<String, StringBuilder> file : files.entrySet()) {
+            Path path = folder.resolve(file.getKey());
+            byte[] bytes = file.getValue().toString().getBytes(charset);
+            String hash = hash(bytes);
+            hashes.put(file.getKey(), hash);
+            if (hash.equals(previous.get(file.getKey())) && Files.isRegularFile(path)) {
+                folderSkipped++;
+            } else {
+                Files.createDirectories(folder);
+                metrics.opened();
+                try {
+                    Files.write(path, bytes);
+                } finally {
+                    metrics.closed();
+                }
+                metrics.fileCreated();
+                metrics.addBytesWritten(bytes.length);
+                folderWritten++;
+            }
+        }
+        for (String name : previous.keySet()) {
+            if (!hashes.containsKey(name) && Files.deleteIfExists(folder.resolve(name))) {
+                metrics.fileDeleted(false);
+                folderDeleted++;
+            }
+        }
+        writeManifest(folder.resolve(MANIFEST), hashes, folderWritten, folderSkipped, folderDeleted);
+        written += folderWritten;
+        skipped += folderSkipped;
+        deleted += folderDeleted;
+    }
+
+    /**
+     * Deletes every {@code .json} file under {@code rootDir} that is not a document of {@code folders}, the manifest of
+     * one of them or the run metrics, and then every folder below {@code rootDir} that this leaves empty.
+     */
+    private void removeStaleDocuments(final Path rootDir, final Map<Path, LinkedHashMap<String, StringBuilder>> folders, final Metrics metrics) throws IOException {
+        if (!Files.isDirectory(rootDir))
+            return;
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                String name = file.getFileName().toString();
+                if (!attributes.isRegularFile() || !name.endsWith(".json"))
+                    return FileVisitResult.CONTINUE;
+                Map<String, StringBuilder> files = folders.get(file.getParent());
+                if (files != null && (files.containsKey(name) || name.equals(MANIFEST)))
+                    return FileVisitResult.CONTINUE;
+                if (file.getParent().equals(rootDir) && name.equals(RunMetrics.FILE))
+                    return FileVisitResult.CONTINUE;
+                if (Files.deleteIfExists(file) && !name.equals(MANIFEST)) {
+                    metrics.fileDeleted(false);
+                    deleted++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null)
+                    throw e;
+                if (!dir.equals(rootDir)) {
+                    try (DirectoryStream<Path> remaining = Files.newDirectoryStream(dir)) {
+                        if (!remaining.iterator().hasNext())
+                            Files.delete(dir);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static Map<String, String> readManifest(Path manifest) throws IOException {
+        HashMap<String, String> hashes = new HashMap<>();
+        if (!Files.isRegularFile(manifest))
+            return hashes;
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = MANIFEST_ENTRY.matcher(line);
+                if (matcher.matches())
+                    hashes.put(JsonStrings.unquote(matcher.group(1)), matcher.group(2));
+            }
+        }
+        return hashes;
+    }
+
+    private static void writeManifest(Path manifest, LinkedHashMap<String, String> hashes, int written, int skipped, int deleted) throws IOException {
+        StringBuilder text = new StringBuilder("{\n\t\"files\": {");
+        Iterator<Map.Entry<String, String>> it = hashes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            text.append("\n\t\t").append(JsonStrings.quote(entry.getKey())).append(": \"").append(entry.getValue()).append("\"");
+            if (it.hasNext())
+                text.append(",");
+        }
+        text.append("\n\t},\n\t\"written\": ").append(written)
+                .append(",\n\t\"skipped\": ").append(skipped)
+                .append(",\n\t\"deleted\": ").append(deleted)
+                .append("\n}\n");
+        Files.write(manifest, text.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package umltonosqlplugin.output;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the JSON documents of a diagram in memory, keyed by output path, and hands each of them to the
+ * {@link DocumentOutput} in a single write on {@link #flush()}. Whether a document starts a new file or is
+ * appended to an existing one is decided when it is flushed, so documents can be built off the writing thread.
+ */
+public class JsonDocumentBuilder {
+
+    private final LinkedHashMap<Path, Document> documents;
+    private final DocumentOutput output;
+
+    public JsonDocumentBuilder(DocumentOutput output) {
+        documents = new LinkedHashMap<>();
+        this.output = output;
+    }
+
+    public void append(Path path, String text, boolean comma) {
+        Document document = documents.get(path);
+        if (document == null) {
+            documents.put(path, new Document(text, comma));
+            return;
+        }
+        if (!text.equals("\n}") && comma)
+            document.content.append(',').append(text);
+        else
+            document.content.append(text);
+    }
+
+    /**
+     * Deletes the file already written for the path, if there is one. Documents collected by this builder are kept.
+     */
+    public void delete(Path path) throws IOException {
+        if (output.exists(path))
+            output.delete(path);
+    }
+
+    public ArrayList<Path> flush() throws IOException {
+        ArrayList<Path> written = new ArrayList<>();
+        IOException failure = null;
+        for (Map.Entry<Path, Document> entry : documents.entrySet()) {
+            try {
+                write(entry.getKey(), entry.getValue());
+                written.add(entry.getKey());
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        documents.clear();
+        if (failure != null)
+            throw failure;
+        return written;
+    }
+
+    private void write(Path path, Document document) throws IOException {
+        StringBuilder content = document.content;
+        if (!output.exists(path)) {
+            content.setCharAt(0, '{');
+            output.create(path, content.toString());
+        } else if (document.leadingComma) {
+            content.setCharAt(0, ',');
+            output.append(path, content.toString());
+        } else {
+            output.append(path, content.substring(1));
+        }
+    }
+
+    /**
+     * The content of a document starts with one reserved character, set to the opening brace or the leading comma
+     * when the document is written.
+     */
+    private static class Document {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private final StringBuilder content;
+        private final boolean leadingComma;
+
+        private Document(String text, boolean comma) {
+            this.content = new StringBuilder(Math.max(INITIAL_CAPACITY, text.length() + 1)).append(' ').append(text);
+            this.leadingComma = comma && !text.equals("\n}");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package umltonosqlplugin.output;
+
+/**
+ * JSON string literals for the manifests and reports written next to the documents.
+ */
+public final class JsonStrings {
+
+    private JsonStrings() {
+    }
+
+    /**
+     * Returns {@code value} as a quoted JSON string, or {@code null} as the JSON literal.
+     */
+    public static String quote(String value) {
+        if (value == null)
+            return "null";
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                quoted.append('\\').append(c);
+            else if (c < 0x20)
+                quoted.append(String.format("\\u%04x", (int) c));
+            else
+                quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Returns the value of the quoted JSON string {@code literal}, as written by {@link #quote(String)} or any other
+     * JSON writer.
+     */
+    public static String unquote(String literal) {
+        if (literal.length() < 2 || literal.charAt(0) != '"' || literal.charAt(literal.length() - 1) != '"')
+            throw new IllegalArgumentException("Not a JSON string: " + literal);
+        StringBuilder value = new StringBuilder(literal.length());
+        for (int i = 1; i < literal.length() - 1; i++) {
+            char c = literal.charAt(i);
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (++i == literal.length() - 1)
+                throw new IllegalArgumentException("Unterminated escape: " + literal);
+            char escaped = literal.charAt(i);
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (i + 5 > literal.length() - 1)
+                        throw new IllegalArgumentException("Unterminated escape: " + literal);
+                    value.append((char) Integer.parseInt(literal.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid escape \\" + escaped + ": " + literal);
+            }
+        }
+        return value.toString();
+    }
+}
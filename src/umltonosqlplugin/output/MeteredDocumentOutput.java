@@ -0,0 +1,88 @@
+package umltonosqlplugin.output;
+
+import umltonosqlplugin.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Counts the files created and deleted, the bytes written and the files opened and closed by a {@link DocumentOutput}.
+ * Paths created during the run are shared between outputs, so deleting a file that an earlier diagram of the same run
+ * wrote is reported as a delete after writing.
+ */
+public class MeteredDocumentOutput implements DocumentOutput {
+
+    private final DocumentOutput output;
+    private final Metrics metrics;
+    private final Set<Path> created;
+    private final Charset charset;
+
+    public MeteredDocumentOutput(DocumentOutput output, Metrics metrics, Set<Path> created) {
+        this.output = output;
+        this.metrics = metrics;
+        this.created = created;
+        charset = Charset.defaultCharset();
+    }
+
+    @Override
+    public boolean exists(Path path) {
+        return output.exists(path);
+    }
+
+    @Override
+    public void create(Path path, String content) throws IOException {
+        metrics.opened();
+        try {
+            output.create(path, content);
+        } finally {
+            metrics.closed();
+        }
+        metrics.fileCreated();
+        metrics.addBytesWritten(encodedLength(content));
+        created.add(path);
+    }
+
+    @Override
+    public void append(Path path, String content) throws IOException {
+        metrics.opened();
+        try {
+            output.append(path, content);
+        } finally {
+            metrics.closed();
+        }
+        metrics.addBytesWritten(encodedLength(content));
+    }
+
+    /**
+     * Returns the number of bytes {@code content} is written as. UTF-8 lengths are counted from the characters
+     * instead of encoding the content a second time; unpaired surrogates count as the single replacement byte.
+     */
+    private long encodedLength(String content) {
+        if (!charset.equals(StandardCharsets.UTF_8))
+            return content.getBytes(charset).length;
+        long length = content.length();
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c < 0x80)
+                continue;
+            if (c < 0x800) {
+                length++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < content.length() && Character.isLowSurrogate(content.charAt(i + 1))) {
+                length += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        output.delete(path);
+        metrics.fileDeleted(created.remove(path));
+    }
+}
@@ -0,0 +1,9 @@
+package umltonosqlplugin.transformation;
+
+/**
+ * Rule that maps one kind of association onto embedded documents, registered in an {@link AssociationMappingTable}.
+ */
+public interface AssociationMapping {
+
+    void apply(AssociationMappingContext context);
+}
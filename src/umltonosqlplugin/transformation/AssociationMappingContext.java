@@ -0,0 +1,45 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.AssociationClassification;
+import umltonosqlplugin.model.ModelAssociation;
+import umltonosqlplugin.model.ModelClass;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The association being mapped and the operations a mapping rule can use. The source is the class whose
+ * associations are written; a rule may rebind source and target, which then applies to the rest of the class.
+ */
+public interface AssociationMappingContext {
+
+    AssociationClassification getClassification();
+
+    ModelClass getSource();
+
+    void setSource(ModelClass source);
+
+    ModelClass getTarget();
+
+    void setTarget(ModelClass target);
+
+    String getSourceMultiplicity();
+
+    String getTargetMultiplicity();
+
+    /**
+     * Returns the document the associations are written for, relative to the diagram folder like {@link #getPath(ModelClass)}.
+     */
+    Path getPath();
+
+    Path getPath(ModelClass modelClass);
+
+    List<Map.Entry<ModelAssociation, ModelClass>> getAssociationClasses();
+
+    void embedOne(ModelClass modelClass, Path path, boolean composition);
+
+    void embedMany(ModelClass modelClass, Path path, boolean composition);
+
+    void createComposited(ModelClass part, ModelClass whole, String multiplicity);
+}
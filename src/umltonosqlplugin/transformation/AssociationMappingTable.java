@@ -0,0 +1,126 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.AssociationClassification;
+import umltonosqlplugin.model.AssociationEndKind;
+import umltonosqlplugin.model.ModelAssociation;
+import umltonosqlplugin.model.ModelClass;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Mapping rules indexed by the {@link AssociationClassification#getCode() code} of the association they apply to.
+ * Associations without a rule are not mapped.
+ */
+public class AssociationMappingTable {
+
+    private final AssociationMapping[] mappings;
+
+    public AssociationMappingTable() {
+        mappings = new AssociationMapping[AssociationClassification.codes()];
+    }
+
+    public static AssociationMappingTable defaultTable() {
+        AssociationMappingTable table = new AssociationMappingTable();
+        table.register(AssociationEndKind.MANY, AssociationEndKind.MANY, MANY_TO_MANY);
+        table.register(AssociationEndKind.MANY, AssociationEndKind.ONE, MANY_TO_ONE);
+        table.register(AssociationEndKind.ONE, AssociationEndKind.MANY, ONE_TO_MANY);
+        table.register(AssociationEndKind.ONE, AssociationEndKind.ONE, ONE_TO_ONE);
+        for (AssociationEndKind composite : new AssociationEndKind[]{AssociationEndKind.COMPOSITE_ONE, AssociationEndKind.COMPOSITE_MANY}) {
+            table.register(AssociationEndKind.MANY, composite, MANY_TO_COMPOSITE);
+            table.register(AssociationEndKind.ONE, composite, ONE_TO_COMPOSITE);
+            table.register(composite, AssociationEndKind.MANY, COMPOSITE_TO_MANY);
+            table.register(composite, AssociationEndKind.ONE, COMPOSITE_TO_ONE);
+        }
+        return table;
+    }
+
+    public void register(AssociationEndKind from, AssociationEndKind to, AssociationMapping mapping) {
+        mappings[AssociationClassification.code(from, to)] = mapping;
+    }
+
+    public AssociationMapping get(AssociationClassification classification) {
+        return mappings[classification.getCode()];
+    }
+
+    private static final AssociationMapping MANY_TO_MANY = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            boolean asso = false;
+            for (Map.Entry<ModelAssociation, ModelClass> pair : context.getAssociationClasses()) {
+                ModelAssociation association = pair.getKey();
+                String source = context.getSource().getName();
+                String target = context.getTarget().getName();
+                if ((association.getFrom().getName().equals(source) || association.getFrom().getName().equals(target))
+                        && (association.getTo().getName().equals(source) || association.getTo().getName().equals(target))) {
+                    Path path = context.getPath(pair.getValue());
+                    context.setSource(association.getFrom());
+                    context.setTarget(association.getTo());
+                    context.embedOne(context.getSource(), path, false);
+                    context.embedOne(context.getTarget(), path, false);
+                    asso = true;
+                }
+            }
+            if (!asso) {
+                context.embedMany(context.getSource(), context.getPath(context.getTarget()), false);
+                context.embedMany(context.getTarget(), context.getPath(), false);
+            }
+        }
+    };
+
+    private static final AssociationMapping MANY_TO_ONE = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedMany(context.getSource(), context.getPath(context.getTarget()), false);
+            context.embedOne(context.getTarget(), context.getPath(), false);
+        }
+    };
+
+    private static final AssociationMapping ONE_TO_MANY = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedMany(context.getTarget(), context.getPath(), false);
+            context.embedOne(context.getSource(), context.getPath(context.getTarget()), false);
+        }
+    };
+
+    private static final AssociationMapping ONE_TO_ONE = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedOne(context.getSource(), context.getPath(context.getTarget()), false);
+            context.embedOne(context.getTarget(), context.getPath(), false);
+        }
+    };
+
+    private static final AssociationMapping MANY_TO_COMPOSITE = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedMany(context.getSource(), context.getPath(context.getTarget()), true);
+            context.createComposited(context.getSource(), context.getTarget(), context.getTargetMultiplicity());
+        }
+    };
+
+    private static final AssociationMapping ONE_TO_COMPOSITE = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedOne(context.getSource(), context.getPath(context.getTarget()), true);
+            context.createComposited(context.getSource(), context.getTarget(), context.getTargetMultiplicity());
+        }
+    };
+
+    private static final AssociationMapping COMPOSITE_TO_MANY = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedMany(context.getTarget(), context.getPath(), true);
+            context.createComposited(context.getTarget(), context.getSource(), context.getSourceMultiplicity());
+        }
+    };
+
+    private static final AssociationMapping COMPOSITE_TO_ONE = new AssociationMapping() {
+        @Override
+        public void apply(AssociationMappingContext context) {
+            context.embedOne(context.getTarget(), context.getPath(), true);
+            context.createComposited(context.getTarget(), context.getSource(), context.getSourceMultiplicity());
+        }
+    };
+}
@@ -0,0 +1,113 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.ModelAttribute;
+import umltonosqlplugin.model.ModelClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolved attributes of every class rendered during a run. A class is resolved the first time it is rendered;
+ * every later embed, generalization or composition of it reuses the rendered fragments.
+ */
+public class AttributeCache {
+
+    private final ConcurrentHashMap<ModelClass, List<ResolvedAttribute>> attributes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public AttributeCache() {
+        attributes = new ConcurrentHashMap<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    public List<ResolvedAttribute> get(ModelClass iClass) {
+        List<ResolvedAttribute> resolved = attributes.get(iClass);
+        if (resolved != null) {
+            hits.incrementAndGet();
+            return resolved;
+        }
+        resolved = resolve(iClass);
+        List<ResolvedAttribute> previous = attributes.putIfAbsent(iClass, resolved);
+        if (previous != null) {
+            hits.incrementAndGet();
+            return previous;
+        }
+        misses.incrementAndGet();
+        return resolved;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static List<ResolvedAttribute> resolve(ModelClass iClass) {
+        ArrayList<ResolvedAttribute> resolved = new ArrayList<>();
+        for (ModelAttribute attribute : iClass.getAttributes())
+            resolved.add(new ResolvedAttribute(attribute.getName(), attribute.getTypeName(), valueOf(attribute), attribute.isID()));
+        return Collections.unmodifiableList(resolved);
+    }
+
+    private static String valueOf(ModelAttribute attribute) {
+        String value = "";
+        if (attribute.getTypeName().equals("String") || attribute.getTypeName().equals("DateTime") || attribute.getTypeName().equals("Date"))
+            value = "someString";
+        else if (attribute.isDataType() && !attribute.getName().equals("agreed") && !attribute.getName().equals("gender"))
+            value = "someNumber";
+        else if (attribute.isDataType())
+            value = "someBoolean";
+        return value;
+    }
+
+    public static class ResolvedAttribute {
+
+        private final String name;
+        private final String typeName;
+        private final String value;
+        private final boolean id;
+        private final String fragment;
+
+        ResolvedAttribute(String name, String typeName, String value, boolean id) {
+            this.name = name;
+            this.typeName = typeName;
+            this.value = value;
+            this.id = id;
+            fragment = "\"" + name + "\": " + "\"" + value + "\"";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * Returns the placeholder written for the attribute: {@code someString}, {@code someNumber},
+         * {@code someBoolean} or an empty string.
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isID() {
+            return id;
+        }
+
+        /**
+         * Returns the attribute rendered as a JSON member, without indentation.
+         */
+        public String getFragment() {
+            return fragment;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.ModelClass;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lowercase names, IDs and document paths of the classes of a run. They are derived once per class name and the
+ * same instances are used by every plan and document, instead of lowercasing the name for every fragment.
+ */
+public class ClassNames {
+
+    private final ConcurrentHashMap<String, Names> names;
+
+    public ClassNames() {
+        names = new ConcurrentHashMap<>();
+    }
+
+    public Names get(ModelClass iClass) {
+        return get(iClass.getName());
+    }
+
+    public Names get(String className) {
+        Names classNames = names.get(className);
+        if (classNames == null) {
+            classNames = new Names(className);
+            Names previous = names.putIfAbsent(className, classNames);
+            if (previous != null)
+                classNames = previous;
+        }
+        return classNames;
+    }
+
+    public static class Names {
+
+        private final String lowerCase;
+        private final String id;
+        private final Path file;
+
+        private Names(String className) {
+            lowerCase = className.toLowerCase();
+            id = lowerCase + "ID";
+            file = Paths.get(id + ".json");
+        }
+
+        /**
+         * Returns the class name in lower case, the key of the class in the documents embedding it.
+         */
+        public String getLowerCase() {
+            return lowerCase;
+        }
+
+        /**
+         * Returns the placeholder ID of the class, such as {@code orderID}.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Returns the name of the document of the class, such as {@code orderID.json}.
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the name of the document storing this class as a composited part of {@code whole}.
+         */
+        public Path getCompositionFile(Names whole) {
+            return Paths.get(id + "_" + whole.id + ".json");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.model.ModelClass;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What transforming one class contributes to the documents of a diagram, with documents named relative to the
+ * diagram folder. A class is planned once per run and the plan is applied to every diagram showing the class.
+ */
+public class ClassPlan {
+
+    private final ModelClass modelClass;
+    private final ArrayList<Step> steps;
+    private final ArrayList<String> droppedClasses;
+    private final ArrayList<Message> messages;
+
+    ClassPlan(ModelClass modelClass) {
+        this.modelClass = modelClass;
+        steps = new ArrayList<>();
+        droppedClasses = new ArrayList<>();
+        messages = new ArrayList<>();
+    }
+
+    public ModelClass getModelClass() {
+        return modelClass;
+    }
+
+    List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Returns the classes whose own documents are dropped because this class embeds or composes them.
+     */
+    public List<String> getDroppedClasses() {
+        return Collections.unmodifiableList(droppedClasses);
+    }
+
+    List<Message> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    void open(Path file, ModelClass owner, ModelClass whole) {
+        steps.add(new Step(file, owner, whole, null));
+    }
+
+    void add(Path file, CollectionPlan.Entry entry) {
+        steps.add(new Step(file, null, null, entry));
+    }
+
+    void drop(String className) {
+        droppedClasses.add(className);
+    }
+
+    void message(LogLevel level, String text, Path file) {
+        messages.add(new Message(level, text, file));
+    }
+
+    /**
+     * Opens a document, when {@link #entry} is {@code null}, or adds an entry to it.
+     */
+    static class Step {
+
+        final Path file;
+        final ModelClass owner;
+        final ModelClass whole;
+        final CollectionPlan.Entry entry;
+
+        private Step(Path file, ModelClass owner, ModelClass whole, CollectionPlan.Entry entry) {
+            this.file = file;
+            this.owner = owner;
+            this.whole = whole;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Log message of the class; a message naming a document ends with the document's path in the diagram.
+     */
+    static class Message {
+
+        final LogLevel level;
+        final String text;
+        final Path file;
+
+        private Message(LogLevel level, String text, Path file) {
+            this.level = level;
+            this.text = text;
+            this.file = file;
+        }
+    }
+}
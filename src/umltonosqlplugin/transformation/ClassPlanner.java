@@ -0,0 +1,268 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plans the transformation of classes: their attributes, subclasses and mapped associations. The plan of a class
+ * does not depend on the diagram it is shown on, so each class is planned the first time a diagram needs it and
+ * the plan is reused by every other diagram of the run.
+ */
+public class ClassPlanner {
+
+    private final RelationshipIndex relationships;
+    private final AttributeCache attributeCache;
+    private final ClassNames classNames;
+    private final AssociationMappingTable mappings;
+    private final TransformationLog log;
+    private final boolean verbose;
+    private final boolean trace;
+    private final ConcurrentHashMap<ModelClass, ClassPlan> plans;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    ClassPlanner(RelationshipIndex relationships, AttributeCache attributeCache, ClassNames classNames, AssociationMappingTable mappings, TransformationLog log) {
+        this.relationships = relationships;
+        this.attributeCache = attributeCache;
+        this.classNames = classNames;
+        this.mappings = mappings;
+        this.log = log;
+        verbose = log.isEnabled(LogLevel.CLASS);
+        trace = log.isEnabled(LogLevel.TRACE);
+        plans = new ConcurrentHashMap<>();
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    public ClassPlan get(ModelClass iClass) {
+        ClassPlan plan = plans.get(iClass);
+        if (plan != null) {
+            hits.incrementAndGet();
+            return plan;
+        }
+        plan = performClassTransformation(iClass);
+        ClassPlan previous = plans.putIfAbsent(iClass, plan);
+        if (previous != null) {
+            hits.incrementAndGet();
+            return previous;
+        }
+        misses.incrementAndGet();
+        return plan;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private ClassPlan performClassTransformation(ModelClass iClass) {
+        ClassPlan plan = new ClassPlan(iClass);
+        Path path = classNames.get(iClass).getFile();
+        plan.open(path, iClass, null);
+        if (verbose)
+            showMessage(plan, LogLevel.CLASS, "Class: " + iClass.getName());
+        writeClassStereotypes(plan, iClass);
+        planClassAttributes(plan, iClass, path, true);
+        writeClassGeneralization(plan, iClass, path);
+        if (!relationships.isSubClass(iClass.getName()))
+            writeClassAssociations(plan, iClass, path, null);
+        return plan;
+    }
+
+    private void writeClassGeneralization(ClassPlan plan, ModelClass iClass, Path path) {
+        for (ModelClass iClassSub : relationships.getSubClasses(iClass)) {
+            if (verbose)
+                showMessage(plan, LogLevel.CLASS, iClassSub.getName());
+            planClassAttributes(plan, iClassSub, path, false);
+            writeClassAssociations(plan, iClassSub, path, iClass);
+            plan.drop(iClassSub.getName());
+        }
+    }
+
+    private void writeClassStereotypes(ClassPlan plan, ModelClass iClass) {
+        boolean enumeration = false;
+        for (String stereotype : iClass.getStereotypes()) {
+            if (trace)
+                showMessage(plan, LogLevel.TRACE, "Stereotype: " + stereotype);
+            if (stereotype.equals("enumeration")) {
+                for (String enumLiteral : iClass.getEnumerationLiterals()) {
+                    if (trace)
+                        showMessage(plan, LogLevel.TRACE, "EnumLit: " + enumLiteral);
+                }
+                enumeration = true;
+            }
+        }
+        /*if (enumeration)
+            plan.drop(iClass.getName());*/
+    }
+
+    private void embedManyRelation(ClassPlan plan, ModelClass iClass, Path path, ModelClass superClass, boolean composition, String multiplicity) {
+        if (superClass == null || !relationships.isSubClass(iClass.getName()))
+            superClass = null;
+        if (verbose)
+            showMessage(plan, LogLevel.CLASS, "Wrote many objects of " + (superClass != null ? superClass : iClass).getName() + " into: ", path);
+        plan.add(path, new CollectionPlan.Entry(CollectionPlan.EntryKind.EMBED_MANY, iClass, superClass, composition, multiplicity, 3));
+    }
+
+    private void embedOneRelation(ClassPlan plan, ModelClass iClass, Path path, ModelClass superClass, boolean composition, String multiplicity) {
+        if (superClass == null || !relationships.isSubClass(iClass.getName()))
+            superClass = null;
+        if (verbose)
+            showMessage(plan, LogLevel.CLASS, "Wrote one object of " + (superClass != null ? superClass : iClass).getName() + " into: ", path);
+        plan.add(path, new CollectionPlan.Entry(CollectionPlan.EntryKind.EMBED_ONE, iClass, superClass, composition, multiplicity, 2));
+    }
+
+    private void createCompositedRelation(ClassPlan plan, ModelClass iClass, ModelClass iClassAssoTo) {
+        Path path = classNames.get(iClass).getCompositionFile(classNames.get(iClassAssoTo));
+        plan.drop(iClass.getName());
+        plan.open(path, iClass, iClassAssoTo);
+        planClassAttributes(plan, iClass, path, false);
+    }
+
+    private void planClassAttributes(ClassPlan plan, ModelClass iClass, Path path, boolean verbose) {
+        plan.add(path, new CollectionPlan.Entry(CollectionPlan.EntryKind.ATTRIBUTES, iClass, null, false, null, 1));
+        if (verbose && trace) {
+            for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass))
+                showMessage(plan, LogLevel.TRACE, "Atr: " + attribute.getName());
+        }
+    }
+
+    private void writeClassAssociations(ClassPlan plan, ModelClass iClass, Path path, ModelClass superClass) {
+        MappingContext context = new MappingContext(plan, iClass, path, superClass);
+        for (ModelAssociationEnd associationFrom : iClass.getAssociationEnds()) {
+            ModelAssociationEnd associationTo = associationFrom.getOppositeEnd();
+            context.next(relationships.classify(associationFrom), associationFrom, associationTo);
+            AssociationMapping mapping = mappings.get(context.getClassification());
+            if (mapping != null)
+                mapping.apply(context);
+            if (trace) {
+                showMessage(plan, LogLevel.TRACE, "AssoFrom: " + context.getSource().getName() + " Mult: " + associationFrom.getMultiplicity() + " Type: " + associationFrom.getAggregationKind());
+                showMessage(plan, LogLevel.TRACE, "AssoTo: " + associationTo.getModelClass().getName() + " Mult: " + associationTo.getMultiplicity() + " Type: " + associationTo.getAggregationKind());
+            }
+        }
+    }
+
+    private void showMessage(ClassPlan plan, LogLevel level, String text) {
+        showMessage(plan, level, text, null);
+    }
+
+    private void showMessage(ClassPlan plan, LogLevel level, String text, Path path) {
+        if (log.isEnabled(level))
+            plan.message(level, text, path);
+    }
+
+    private class MappingContext implements AssociationMappingContext {
+
+        private final ClassPlan plan;
+        private final Path path;
+        private final ModelClass superClass;
+        private ModelClass source;
+        private ModelClass target;
+        private AssociationClassification classification;
+        private ModelAssociationEnd sourceEnd;
+        private ModelAssociationEnd targetEnd;
+
+        private MappingContext(ClassPlan plan, ModelClass source, Path path, ModelClass superClass) {
+            this.plan = plan;
+            this.source = source;
+            this.path = path;
+            this.superClass = superClass;
+        }
+
+        private void next(AssociationClassification classification, ModelAssociationEnd sourceEnd, ModelAssociationEnd targetEnd) {
+            this.classification = classification;
+            this.sourceEnd = sourceEnd;
+            this.targetEnd = targetEnd;
+            target = targetEnd.getModelClass();
+        }
+
+        @Override
+        public AssociationClassification getClassification() {
+            return classification;
+        }
+
+        @Override
+        public ModelClass getSource() {
+            return source;
+        }
+
+        @Override
+        public void setSource(ModelClass source) {
+            this.source = source;
+        }
+
+        @Override
+        public ModelClass getTarget() {
+            return target;
+        }
+
+        @Override
+        public void setTarget(ModelClass target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getSourceMultiplicity() {
+            return sourceEnd.getMultiplicity();
+        }
+
+        @Override
+        public String getTargetMultiplicity() {
+            return targetEnd.getMultiplicity();
+        }
+
+        @Override
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public Path getPath(ModelClass modelClass) {
+            return classNames.get(modelClass).getFile();
+        }
+
+        @Override
+        public List<Map.Entry<ModelAssociation, ModelClass>> getAssociationClasses() {
+            return relationships.getAssociationClasses(source.getName(), target.getName());
+        }
+
+        @Override
+        public void embedOne(ModelClass modelClass, Path path, boolean composition) {
+            embedOneRelation(plan, modelClass, path, superClass, composition, getMultiplicity(modelClass));
+        }
+
+        @Override
+        public void embedMany(ModelClass modelClass, Path path, boolean composition) {
+            embedManyRelation(plan, modelClass, path, superClass, composition, getMultiplicity(modelClass));
+        }
+
+        @Override
+        public void createComposited(ModelClass part, ModelClass whole, String multiplicity) {
+            createCompositedRelation(plan, part, whole);
+        }
+
+        /**
+         * Returns the multiplicity of the end of the association at {@code modelClass}; on a self association, the
+         * one with the greater upper bound, or {@code null} when the class is at neither end.
+         */
+        private String getMultiplicity(ModelClass modelClass) {
+            String multiplicity = null;
+            for (ModelAssociationEnd end : new ModelAssociationEnd[]{sourceEnd, targetEnd}) {
+                if (end.getModelClass().getName().equals(modelClass.getName())
+                        && (multiplicity == null || AssociationEndKind.upperBound(end.getMultiplicity()) > AssociationEndKind.upperBound(multiplicity)))
+                    multiplicity = end.getMultiplicity();
+            }
+            return multiplicity;
+        }
+    }
+}
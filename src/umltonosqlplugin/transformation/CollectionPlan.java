@@ -0,0 +1,158 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.ModelClass;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Planned content of one output document: the attributes and embeds written into it, in order, and how many times
+ * it is closed. A collection that turns out to be a subclass or a composited part is dropped and never written.
+ */
+public class CollectionPlan {
+
+    public enum EntryKind {
+        ATTRIBUTES, EMBED_ONE, EMBED_MANY
+    }
+
+    private final Path path;
+    private final ArrayList<Entry> entries;
+    private ModelClass owner;
+    private ModelClass whole;
+    private int closings;
+    private boolean dropped;
+
+    CollectionPlan(Path path) {
+        this.path = path;
+        entries = new ArrayList<>();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the name of the collection the document stands for: its file name without the extension.
+     */
+    public String getCollectionName() {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - ".json".length()) : fileName;
+    }
+
+    /**
+     * Returns the class the document is generated for, or {@code null} when the document only receives embeds.
+     */
+    public ModelClass getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the whole a composited part is stored with, or {@code null} for a class document.
+     */
+    public ModelClass getWhole() {
+        return whole;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int getClosings() {
+        return closings;
+    }
+
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    void open(ModelClass owner, ModelClass whole) {
+        if (this.owner == null) {
+            this.owner = owner;
+            this.whole = whole;
+        }
+        closings++;
+    }
+
+    void add(Entry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * Drops everything planned so far, together with one of the closings, like the deletion of a written file did.
+     */
+    void drop() {
+        entries.clear();
+        if (closings > 0)
+            closings--;
+        dropped = true;
+    }
+
+    public static class Entry {
+
+        private final EntryKind kind;
+        private final ModelClass modelClass;
+        private final ModelClass superClass;
+        private final boolean composition;
+        private final String multiplicity;
+        private final int depth;
+        private final String indent;
+        private volatile String rendered;
+
+        Entry(EntryKind kind, ModelClass modelClass, ModelClass superClass, boolean composition, String multiplicity, int depth) {
+            this.kind = kind;
+            this.modelClass = modelClass;
+            this.superClass = superClass;
+            this.composition = composition;
+            this.multiplicity = multiplicity;
+            this.depth = depth;
+            indent = DocumentRenderer.indent(depth);
+        }
+
+        public EntryKind getKind() {
+            return kind;
+        }
+
+        public ModelClass getModelClass() {
+            return modelClass;
+        }
+
+        /**
+         * Returns the superclass whose attributes are merged into an embedded subclass, or {@code null}.
+         */
+        public ModelClass getSuperClass() {
+            return superClass;
+        }
+
+        public boolean isComposition() {
+            return composition;
+        }
+
+        /**
+         * Returns the multiplicity of the embedded class at its association end, or {@code null} for attributes.
+         */
+        public String getMultiplicity() {
+            return multiplicity;
+        }
+
+        /**
+         * Returns the nesting level the attributes of the entry are written at, the document itself being level 1.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public String getIndent() {
+            return indent;
+        }
+
+        String getRendered() {
+            return rendered;
+        }
+
+        void setRendered(String rendered) {
+            this.rendered = rendered;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package umltonosqlplugin.transformation;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Final set of documents of a diagram, resolved before anything is rendered or written. Documents of subclasses and
+ * composited parts are marked dropped instead of being written and deleted again; {@link #describe()} previews the
+ * plan without any I/O.
+ */
+public class DiagramPlan {
+
+    private final String diagramName;
+    private final LinkedHashMap<Path, CollectionPlan> collections;
+
+    DiagramPlan(String diagramName) {
+        this.diagramName = diagramName;
+        collections = new LinkedHashMap<>();
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public List<CollectionPlan> getCollections() {
+        return new ArrayList<>(collections.values());
+    }
+
+    public int getSurvivingCount() {
+        int surviving = 0;
+        for (CollectionPlan collection : collections.values()) {
+            if (!collection.isDropped())
+                surviving++;
+        }
+        return surviving;
+    }
+
+    CollectionPlan collection(Path path) {
+        CollectionPlan collection = collections.get(path);
+        if (collection == null) {
+            collection = new CollectionPlan(path);
+            collections.put(path, collection);
+        }
+        return collection;
+    }
+
+    void drop(Path path) {
+        collection(path).drop();
+    }
+
+    public String describe() {
+        StringBuilder description = new StringBuilder("Diagram: ").append(diagramName)
+                .append(" (").append(getSurvivingCount()).append(" documents)");
+        ArrayList<String> dropped = new ArrayList<>();
+        for (CollectionPlan collection : collections.values()) {
+            String fileName = collection.getPath().getFileName().toString();
+            if (collection.isDropped()) {
+                dropped.add(fileName);
+                continue;
+            }
+            description.append("\n\t").append(fileName).append(':');
+            if (collection.getWhole() != null)
+                description.append(" part of ").append(collection.getWhole().getName()).append(';');
+            for (CollectionPlan.Entry entry : collection.getEntries()) {
+                switch (entry.getKind()) {
+                    case ATTRIBUTES:
+                        description.append(" attributes of ").append(entry.getModelClass().getName());
+                        break;
+                    case EMBED_ONE:
+                        description.append(" one ").append(entry.getModelClass().getName());
+                        break;
+                    case EMBED_MANY:
+                        description.append(" many ").append(entry.getModelClass().getName());
+                        break;
+                }
+                if (entry.getSuperClass() != null)
+                    description.append(" (with ").append(entry.getSuperClass().getName()).append(')');
+                description.append(',');
+            }
+            description.setLength(description.length() - 1);
+        }
+        if (!dropped.isEmpty())
+            description.append("\n\tNot generated: ").append(String.join(", ", dropped));
+        return description.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.ProjectSnapshot;
+
+import java.util.Set;
+
+/**
+ * Chooses the diagrams an incremental run transforms, once the project has been read.
+ */
+public interface DiagramSelector {
+
+    /**
+     * Returns the ids of the diagrams to transform, or {@code null} to transform all of them.
+     */
+    Set<String> select(ProjectSnapshot snapshot);
+}
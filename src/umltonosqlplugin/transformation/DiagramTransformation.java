@@ -0,0 +1,217 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.LogMessage;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.metrics.ApiCalls;
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.model.ModelDiagram;
+import umltonosqlplugin.output.DocumentOutput;
+import umltonosqlplugin.output.JsonDocumentBuilder;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Transformation of a single class diagram. All state is owned by the instance, so diagrams can be
+ * transformed concurrently. {@link #plan()} resolves which documents the diagram produces from the shared
+ * {@link ClassPlan}s of its classes, {@link #call()} renders the ones that survive the plan and {@link #merge()}
+ * writes them and publishes the buffered log.
+ */
+public class DiagramTransformation implements Callable<DiagramTransformation> {
+
+    private final ModelDiagram diagram;
+    private final List<ModelClass> classes;
+    private final ClassPlanner planner;
+    private final DocumentRenderer renderer;
+    private final ClassNames classNames;
+    private final Path diagramDir;
+    private final HashMap<Path, Path> paths;
+    private final ArrayList<String> classesToDelete;
+    private final ArrayList<LogMessage> messages;
+    private final JsonDocumentBuilder documents;
+    private final Metrics metrics;
+    private final TransformationLog log;
+    private DiagramPlan plan;
+    private int classCount;
+    private int fileCount;
+
+    DiagramTransformation(ModelDiagram diagram, List<ModelClass> classes, String pathToDir, ClassPlanner planner, DocumentRenderer renderer,
+                          ClassNames classNames, DocumentOutput output, Metrics metrics, TransformationLog log) {
+        this.diagram = diagram;
+        this.classes = classes;
+        this.planner = planner;
+        this.renderer = renderer;
+        this.classNames = classNames;
+        diagramDir = Paths.get(pathToDir + "/" + diagram.getName());
+        paths = new HashMap<>();
+        classesToDelete = new ArrayList<>();
+        messages = new ArrayList<>();
+        documents = new JsonDocumentBuilder(output);
+        this.metrics = metrics;
+        this.log = log;
+    }
+
+    public ModelDiagram getDiagram() {
+        return diagram;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Resolves the documents of the diagram without rendering or writing any of them. The plan is computed once;
+     * {@link #call()} emits the documents it keeps.
+     */
+    public DiagramPlan plan() {
+        if (plan == null) {
+            plan = new DiagramPlan(diagram.getName());
+            performDiagramTransformation();
+            dropMarkedClasses();
+        }
+        return plan;
+    }
+
+    @Override
+    public DiagramTransformation call() {
+        long started = System.nanoTime();
+        long apiCalls = ApiCalls.current();
+        showMessage(LogLevel.CLASS, "--------------------------------------------------------------------------------------------------------------------------------------");
+        showMessage(LogLevel.SUMMARY, "Processing started: " + diagram.getName() + " : " + diagram.getType());
+        showMessage(LogLevel.CLASS, "--------------------------------------------------------------------------------------------------------------------------------------");
+        try {
+            plan();
+            emitDocuments();
+        } finally {
+            metrics.addApiCalls(ApiCalls.current() - apiCalls);
+            metrics.addElapsed(System.nanoTime() - started);
+        }
+        return this;
+    }
+
+    public void merge() {
+        long started = System.nanoTime();
+        deleteDroppedDocuments();
+        flushDocuments();
+        metrics.addElapsed(System.nanoTime() - started);
+        showMessage(LogLevel.SUMMARY, "Diagram processing completed: " + diagram.getName() + " (" + classCount + " classes, " + fileCount + " files)");
+        log.publish(messages);
+        messages.clear();
+        log.flush();
+    }
+
+    private void dropMarkedClasses() {
+        for (String className : classesToDelete)
+            plan.drop(getPath(classNames.get(className).getFile()));
+        classesToDelete.clear();
+    }
+
+    private void performDiagramTransformation() {
+        for (ModelClass iClass : classes) {
+            if (Thread.currentThread().isInterrupted())
+                throw new CancellationException("Processing cancelled: " + diagram.getName());
+            Metrics classMetrics = metrics.child(iClass.getName());
+            long started = System.nanoTime();
+            long apiCalls = ApiCalls.current();
+            applyClassPlan(planner.get(iClass));
+            classMetrics.addApiCalls(ApiCalls.current() - apiCalls);
+            classMetrics.addElapsed(System.nanoTime() - started);
+            showMessage(LogLevel.CLASS, "--------------------------------------------------------------------------------------------------------------------------------------");
+        }
+    }
+
+    private void applyClassPlan(ClassPlan classPlan) {
+        classCount++;
+        for (ClassPlan.Step step : classPlan.getSteps()) {
+            CollectionPlan collection = plan.collection(getPath(step.file));
+            if (step.entry == null)
+                collection.open(step.owner, step.whole);
+            else
+                collection.add(step.entry);
+        }
+        classesToDelete.addAll(classPlan.getDroppedClasses());
+        for (ClassPlan.Message message : classPlan.getMessages())
+            showMessage(message.level, message.file == null ? message.text : message.text + getPath(message.file).toString());
+    }
+
+    private Path getPath(Path file) {
+        Path path = paths.get(file);
+        if (path == null) {
+            path = diagramDir.resolve(file);
+            paths.put(file, path);
+        }
+        return path;
+    }
+
+    private void emitDocuments() {
+        boolean verbose = log.isEnabled(LogLevel.CLASS);
+        for (CollectionPlan collection : plan.getCollections()) {
+            Path path = collection.getPath();
+            String compositionName = null;
+            for (CollectionPlan.Entry entry : collection.getEntries()) {
+                if (entry.isComposition() && compositionName == null)
+                    compositionName = DocumentRenderer.getCompositionName(path);
+                String text = renderEntry(entry, compositionName);
+                if (!text.isEmpty())
+                    writeToExistingFile(text, path, true);
+            }
+            for (int i = 0; i < collection.getClosings(); i++) {
+                writeToExistingFile("\n}", path, false);
+                if (verbose)
+                    showMessage(LogLevel.CLASS, "Created: " + path.toString());
+            }
+        }
+    }
+
+    private void deleteDroppedDocuments() {
+        for (CollectionPlan collection : plan.getCollections()) {
+            if (!collection.isDropped())
+                continue;
+            try {
+                documents.delete(collection.getPath());
+            } catch (IOException e) {
+                metrics.failed();
+                showMessage(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+            }
+        }
+    }
+
+    private void flushDocuments() {
+        try {
+            fileCount = documents.flush().size();
+        } catch (IOException e) {
+            metrics.failed();
+            showMessage(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+        }
+    }
+
+    private void writeToExistingFile(String text, Path path, boolean comma) {
+        documents.append(path, text, comma);
+    }
+
+    /**
+     * Renders an entry as one fragment. Only compositions name the document they are written into, so every other
+     * entry is rendered once and reused by all documents and diagrams it appears in.
+     */
+    private String renderEntry(CollectionPlan.Entry entry, String compositionName) {
+        if (entry.isComposition())
+            return renderer.render(entry, compositionName);
+        String rendered = entry.getRendered();
+        if (rendered == null) {
+            rendered = renderer.render(entry, null);
+            entry.setRendered(rendered);
+        }
+        return rendered;
+    }
+
+    private void showMessage(LogLevel level, String text) {
+        if (log.isEnabled(level))
+            messages.add(new LogMessage(level, text));
+    }
+}
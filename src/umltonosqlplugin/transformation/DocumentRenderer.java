@@ -0,0 +1,116 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.ModelClass;
+import umltonosqlplugin.output.FragmentBuffer;
+
+import java.nio.file.Path;
+
+/**
+ * Renders the entries of a {@link CollectionPlan} as JSON fragments. Fragments are encoded into the
+ * {@link FragmentBuffer} of the rendering thread from the precomputed {@link ClassNames}, attribute fragments and
+ * indentation prefixes, so a fragment costs a single string.
+ */
+public class DocumentRenderer {
+
+    private static final String[] INDENTS = {"\n", "\n\t", "\n\t\t", "\n\t\t\t", "\n\t\t\t\t"};
+
+    private final AttributeCache attributeCache;
+    private final ClassNames classNames;
+
+    public DocumentRenderer(AttributeCache attributeCache, ClassNames classNames) {
+        this.attributeCache = attributeCache;
+        this.classNames = classNames;
+    }
+
+    /**
+     * Returns a newline followed by {@code depth} tabs.
+     */
+    public static String indent(int depth) {
+        if (depth < INDENTS.length)
+            return INDENTS[depth];
+        StringBuilder indent = new StringBuilder(INDENTS[INDENTS.length - 1]);
+        for (int i = INDENTS.length - 1; i < depth; i++)
+            indent.append('\t');
+        return indent.toString();
+    }
+
+    /**
+     * Returns the name compositions written into the document at {@code path} refer to it by: the file name of the
+     * document without its extension, whatever the separator of the platform.
+     */
+    public static String getCompositionName(Path path) {
+        Path fileName = path.getFileName();
+        String name = fileName != null ? fileName.toString() : path.toString();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * Renders an entry; {@code compositionName} is the {@link #getCompositionName(Path) composition name} of the
+     * document, needed only for compositions.
+     */
+    public String render(CollectionPlan.Entry entry, String compositionName) {
+        FragmentBuffer text = FragmentBuffer.get();
+        switch (entry.getKind()) {
+            case ATTRIBUTES:
+                writeClassAttributes(text, entry.getModelClass(), entry.getIndent());
+                break;
+            case EMBED_ONE:
+                writeEmbedOne(text, entry, compositionName);
+                break;
+            case EMBED_MANY:
+                writeEmbedMany(text, entry, compositionName);
+                break;
+        }
+        return text.toString();
+    }
+
+    private void writeEmbedMany(FragmentBuffer text, CollectionPlan.Entry entry, String compositionName) {
+        ModelClass iClass = entry.getModelClass();
+        ClassNames.Names names = classNames.get(iClass);
+        text.append(indent(1)).append('"').append(names.getLowerCase()).append("s\": [");
+        text.append(indent(2)).append('{');
+        writeId(text, entry, names, indent(3), compositionName);
+        if (entry.getSuperClass() != null)
+            writeClassAttributes(text, entry.getSuperClass(), entry.getIndent());
+        writeClassAttributes(text, iClass, entry.getIndent());
+        text.append(indent(2)).append('}').append(indent(1)).append(']');
+    }
+
+    private void writeEmbedOne(FragmentBuffer text, CollectionPlan.Entry entry, String compositionName) {
+        ModelClass iClass = entry.getModelClass();
+        ClassNames.Names names = classNames.get(iClass);
+        text.key(indent(1), names.getLowerCase()).append('{');
+        writeId(text, entry, names, indent(2), compositionName);
+        if (entry.getSuperClass() != null)
+            writeClassAttributes(text, entry.getSuperClass(), entry.getIndent());
+        writeClassAttributes(text, iClass, entry.getIndent());
+        text.append(indent(1)).append('}');
+    }
+
+    /**
+     * Appends the reference to the embedded object: the ID of its class, or of the superclass it is merged into,
+     * followed by the composition name of the document for a composition.
+     */
+    private void writeId(FragmentBuffer text, CollectionPlan.Entry entry, ClassNames.Names names, String indent, String compositionName) {
+        ClassNames.Names idNames = entry.getSuperClass() != null ? classNames.get(entry.getSuperClass()) : names;
+        text.key(indent, names.getLowerCase()).append('"').append(idNames.getId());
+        if (entry.isComposition())
+            text.append('_').append(compositionName);
+        text.append('"');
+    }
+
+    /**
+     * Appends the non-ID attributes of a class, separated by commas; the comma before the first one is left to the
+     * document the fragment is appended to.
+     */
+    private void writeClassAttributes(FragmentBuffer text, ModelClass iClass, String whiteChars) {
+        for (AttributeCache.ResolvedAttribute attribute : attributeCache.get(iClass)) {
+            if (attribute.isID())
+                continue;
+            if (text.length() > 0)
+                text.append(',');
+            text.append(whiteChars).append(attribute.getFragment());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.MessageSink;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.DiagramDependencies;
+import umltonosqlplugin.model.ModelProject;
+import umltonosqlplugin.model.ProjectSnapshot;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Keeps {@code pathToDir} up to date while the model is edited. Changes are collected until no further change
+ * arrives for {@value #DEBOUNCE_PROPERTY} milliseconds; then an incremental run on a background thread transforms
+ * the diagrams the changed classes and diagrams affect, as found by {@link DiagramDependencies} before and after the
+ * changes. The time from the first change of a burst until its output is committed is shown after every update.
+ * <p>
+ * The project source is called on the background thread at the start of every update. It must return a project that
+ * later edits do not change, such as a {@link umltonosqlplugin.model.memory.MemoryProject#copyOf copy} made on the
+ * thread that owns the model, as the update reads it on the background thread while editing goes on.
+ * <p>
+ * {@link #stop()} does not wait for a running update: the update notices the stop before its next diagram and returns
+ * without committing anything, and the end of live mode is reported once it has.
+ */
+public class LiveTransformation {
+
+    public static final String DEBOUNCE_PROPERTY = "umltonosql.live.debounce";
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    private final Callable<ModelProject> projectSource;
+    private final String pathToDir;
+    private final long debounceMillis;
+    private final MessageSink sink;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> scheduled;
+    private LinkedHashSet<String> changedClasses;
+    private LinkedHashSet<String> changedDiagrams;
+    private boolean projectChanged;
+    private boolean updating;
+    private boolean stopPending;
+    private int changes;
+    private long firstChange;
+    private long updates;
+    private long totalLatency;
+    private long maxLatency;
+    /**
+     * Dependencies of the project as of the last update; only used on the update thread.
+     */
+    private DiagramDependencies dependencies;
+
+    public LiveTransformation(Callable<ModelProject> projectSource, String pathToDir, long debounceMillis, MessageSink sink) {
+        if (debounceMillis < 0)
+            throw new IllegalArgumentException("debounce must not be negative: " + debounceMillis);
+        this.projectSource = projectSource;
+        this.pathToDir = pathToDir;
+        this.debounceMillis = debounceMillis;
+        this.sink = sink;
+        changedClasses = new LinkedHashSet<>();
+        changedDiagrams = new LinkedHashSet<>();
+    }
+
+    /**
+     * Returns the debounce window set by {@value #DEBOUNCE_PROPERTY}, or {@value #DEFAULT_DEBOUNCE_MILLIS}.
+     */
+    public static long getDebounceFromSystemProperties() {
+        return Long.getLong(DEBOUNCE_PROPERTY, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public String getPathToDir() {
+        return pathToDir;
+    }
+
+    /**
+     * Starts listening for changes and brings the whole output up to date.
+     */
+    public synchronized void start() {
+        if (executor != null)
+            return;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "umltonosql-live");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        updates = 0;
+        totalLatency = 0;
+        maxLatency = 0;
+        sink.showMessage("Live mode started: " + pathToDir + " (debounce " + debounceMillis + " ms)");
+        projectChanged();
+    }
+
+    /**
+     * Drops the pending changes and cancels a running update, without waiting for it; safe to call from the event
+     * dispatch thread.
+     */
+    public void stop() {
+        ScheduledExecutorService stopped;
+        String message = null;
+        synchronized (this) {
+            if (executor == null)
+                return;
+            stopped = executor;
+            executor = null;
+            if (scheduled != null)
+                scheduled.cancel(false);
+            scheduled = null;
+            reset();
+            if (updating)
+                stopPending = true;
+            else
+                message = getStoppedMessage();
+        }
+        stopped.shutdown();
+        if (message != null)
+            sink.showMessage(message);
+    }
+
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    public synchronized void classChanged(String classId) {
+        changedClasses.add(classId);
+        changed();
+    }
+
+    public synchronized void diagramChanged(String diagramId) {
+        changedDiagrams.add(diagramId);
+        changed();
+    }
+
+    /**
+     * Records a change whose effect cannot be narrowed down, such as a renamed or removed diagram; the next update
+     * transforms every diagram.
+     */
+    public synchronized void projectChanged() {
+        projectChanged = true;
+        changed();
+    }
+
+    private void changed() {
+        if (executor == null)
+            return;
+        if (changes++ == 0)
+            firstChange = System.nanoTime();
+        if (scheduled != null)
+            scheduled.cancel(false);
+        scheduled = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                update();
+            }
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private String getStoppedMessage() {
+        return "Live mode stopped: " + updates + " updates" + (updates > 0
+                ? ", edit-to-output latency avg " + totalLatency / updates + " ms, max " + maxLatency + " ms" : "");
+    }
+
+    /**
+     * Returns whether live mode was stopped, or stopped and started again, since {@code owner} ran the update.
+     */
+    private synchronized boolean isStopped(ScheduledExecutorService owner) {
+        return executor != owner;
+    }
+
+    private void reset() {
+        changedClasses = new LinkedHashSet<>();
+        changedDiagrams = new LinkedHashSet<>();
+        projectChanged = false;
+        changes = 0;
+    }
+
+    private void update() {
+        final Set<String> classes;
+        final Set<String> diagrams;
+        final boolean all;
+        final ScheduledExecutorService owner;
+        int batch;
+        long batchStarted;
+        synchronized (this) {
+            if (executor == null || changes == 0)
+                return;
+            owner = executor;
+            classes = changedClasses;
+            diagrams = changedDiagrams;
+            all = projectChanged;
+            batch = changes;
+            batchStarted = firstChange;
+            reset();
+            updating = true;
+        }
+        long started = System.nanoTime();
+        TransformationLog log = TransformationLog.fromSystemProperties(sink);
+        try {
+            ProjectTransformation transformation = new ProjectTransformation(projectSource.call(), pathToDir, true, log);
+            transformation.setSelector(new DiagramSelector() {
+                @Override
+                public Set<String> select(ProjectSnapshot snapshot) {
+                    DiagramDependencies previous = dependencies;
+                    dependencies = DiagramDependencies.of(snapshot);
+                    if (all || previous == null)
+                        return null;
+                    HashSet<String> selected = new HashSet<>(previous.getAffectedDiagrams(classes, diagrams));
+                    selected.addAll(dependencies.getAffectedDiagrams(classes, diagrams));
+                    return selected;
+                }
+            });
+            for (DiagramTransformation diagram : transformation.prepare()) {
+                if (isStopped(owner))
+                    break;
+                diagram.call();
+                diagram.merge();
+            }
+            if (isStopped(owner)) {
+                dependencies = null;
+                log.log(LogLevel.SUMMARY, "Live update cancelled after " + batch + " changes, nothing written");
+                return;
+            }
+            transformation.complete();
+            long finished = System.nanoTime();
+            long latency = TimeUnit.NANOSECONDS.toMillis(finished - batchStarted);
+            synchronized (this) {
+                updates++;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+            }
+            log.log(LogLevel.SUMMARY, "Live update: " + transformation.getTransformedCount() + " of " + transformation.getDiagramCount()
+                    + " diagrams after " + batch + " changes, edit-to-output latency " + latency + " ms (debounce " + debounceMillis
+                    + " ms, transformation " + TimeUnit.NANOSECONDS.toMillis(finished - started) + " ms)");
+        } catch (Exception e) {
+            dependencies = null;
+            log.log(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+        } finally {
+            log.close();
+            finishUpdate();
+        }
+    }
+
+    private void finishUpdate() {
+        String message = null;
+        synchronized (this) {
+            updating = false;
+            if (stopPending) {
+                stopPending = false;
+                message = getStoppedMessage();
+            }
+        }
+        if (message != null)
+            sink.showMessage(message);
+    }
+}
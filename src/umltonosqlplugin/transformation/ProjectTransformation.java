@@ -0,0 +1,255 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.metrics.ApiCalls;
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.metrics.RunMetrics;
+import umltonosqlplugin.model.*;
+import umltonosqlplugin.output.DocumentOutput;
+import umltonosqlplugin.output.FileDocumentOutput;
+import umltonosqlplugin.output.IncrementalDocumentOutput;
+import umltonosqlplugin.output.MeteredDocumentOutput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transformation of every class diagram of a project into {@code pathToDir/<diagram name>/}. {@link #prepare()}
+ * reads the project into a {@link ProjectSnapshot}, finds association classes and generalizations and returns one
+ * {@link DiagramTransformation} per class diagram; classes shown on several diagrams are transformed once.
+ * Once those are run and merged, {@link #complete()} finishes the run and writes its {@link RunMetrics}.
+ * {@link #run()} does all of it in order; {@link #preview()} only plans the diagrams. An incremental run can be
+ * limited to some of the diagrams with a {@link DiagramSelector}.
+ */
+public class ProjectTransformation {
+
+    private final ModelProject project;
+    private final String pathToDir;
+    private final boolean incremental;
+    private final TransformationLog log;
+    private final RelationshipIndex relationships;
+    private final AttributeCache attributeCache;
+    private final ClassNames classNames;
+    private final DocumentRenderer renderer;
+    private final AssociationMappingTable mappings;
+    private final ClassPlanner planner;
+    private final DocumentOutput output;
+    private final RunMetrics metrics;
+    private final Set<Path> created;
+    private DiagramSelector selector;
+    private Set<String> selected;
+    private int diagramCount;
+    private int errors;
+    private long transformationStarted;
+
+    public ProjectTransformation(ModelProject project, String pathToDir, boolean incremental, TransformationLog log) {
+        this.project = project;
+        this.pathToDir = pathToDir;
+        this.incremental = incremental;
+        this.log = log;
+        relationships = new RelationshipIndex();
+        attributeCache = new AttributeCache();
+        classNames = new ClassNames();
+        renderer = new DocumentRenderer(attributeCache, classNames);
+        mappings = AssociationMappingTable.defaultTable();
+        planner = new ClassPlanner(relationships, attributeCache, classNames, mappings, log);
+        output = incremental ? new IncrementalDocumentOutput() : new FileDocumentOutput();
+        metrics = new RunMetrics();
+        created = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    }
+
+    public void run() {
+        for (DiagramTransformation transformation : prepare()) {
+            transformation.call();
+            transformation.merge();
+        }
+        complete();
+    }
+
+    public ArrayList<DiagramTransformation> prepare() {
+        if (!incremental) {
+            Metrics cleanup = metrics.phase("cleanup");
+            long started = System.nanoTime();
+            deleteAllFilesInDir(new File(pathToDir), cleanup);
+            cleanup.addElapsed(System.nanoTime() - started);
+        }
+        Metrics discovery = metrics.phase("discovery");
+        long started = System.nanoTime();
+        long apiCalls = ApiCalls.current();
+        ProjectSnapshot snapshot = ProjectSnapshot.of(project);
+        getAssoGeneClasses(snapshot);
+        selected = selector != null ? selector.select(snapshot) : null;
+        ArrayList<DiagramTransformation> transformations = createTransformations(snapshot);
+        discovery.addApiCalls(ApiCalls.current() - apiCalls);
+        discovery.addElapsed(System.nanoTime() - started);
+        transformationStarted = System.nanoTime();
+        return transformations;
+    }
+
+    /**
+     * Plans every class diagram as a dry run: nothing is deleted, rendered or written, and no metrics are stored.
+     */
+    public ArrayList<DiagramPlan> preview() {
+        ProjectSnapshot snapshot = ProjectSnapshot.of(project);
+        getAssoGeneClasses(snapshot);
+        ArrayList<DiagramPlan> plans = new ArrayList<>();
+        for (DiagramTransformation transformation : createTransformations(snapshot))
+            plans.add(transformation.plan());
+        return plans;
+    }
+
+    private ArrayList<DiagramTransformation> createTransformations(ProjectSnapshot snapshot) {
+        ArrayList<DiagramTransformation> transformations = new ArrayList<>();
+        diagramCount = 0;
+        for (ModelDiagram diagram : snapshot.getDiagrams()) {
+            if (diagram.getType().equals(ModelDiagram.CLASS_DIAGRAM))
+                diagramCount++;
+            if (diagram.getType().equals(ModelDiagram.CLASS_DIAGRAM) && (selected == null || selected.contains(diagram.getId()))) {
+                Metrics diagramMetrics = metrics.diagram(diagram.getName());
+                // an incremental run only buffers documents here; the commit phase counts the files it writes
+                DocumentOutput diagramOutput = incremental ? output : new MeteredDocumentOutput(output, diagramMetrics, created);
+                transformations.add(new DiagramTransformation(diagram, snapshot.getClasses(diagram), pathToDir, planner, renderer, classNames, diagramOutput, diagramMetrics, log));
+            }
+        }
+        return transformations;
+    }
+
+    public void complete() {
+        if (transformationStarted != 0)
+            metrics.phase("transformation").addElapsed(System.nanoTime() - transformationStarted);
+        log.log(LogLevel.SUMMARY, "Attribute cache: " + attributeCache.getHits() + " hits, " + attributeCache.getMisses() + " misses");
+        log.log(LogLevel.SUMMARY, "Classes transformed: " + planner.getMisses() + ", reused on other diagrams: " + planner.getHits());
+        if (selected != null)
+            log.log(LogLevel.SUMMARY, "Diagrams transformed: " + getTransformedCount() + " of " + diagramCount);
+        if (output instanceof IncrementalDocumentOutput) {
+            IncrementalDocumentOutput incrementalOutput = (IncrementalDocumentOutput) output;
+            Metrics commit = metrics.phase("commit");
+            long started = System.nanoTime();
+            try {
+                incrementalOutput.commit(Paths.get(pathToDir), selected == null, commit);
+            } catch (IOException e) {
+                logException(e);
+            }
+            commit.addElapsed(System.nanoTime() - started);
+            log.log(LogLevel.SUMMARY, "Files written: " + incrementalOutput.getWritten() + ", unchanged: " + incrementalOutput.getSkipped() + ", deleted: " + incrementalOutput.getDeleted());
+        }
+        writeMetrics();
+    }
+
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Limits the next {@link #prepare()} to the diagrams chosen by {@code selector}; {@code null} selects all.
+     * Only incremental runs can be limited, as a full run starts by deleting the whole output directory.
+     */
+    public void setSelector(DiagramSelector selector) {
+        if (selector != null && !incremental)
+            throw new IllegalStateException("Only an incremental run can be limited to some diagrams");
+        this.selector = selector;
+    }
+
+    /**
+     * Returns the number of class diagrams of the project, as of the last {@link #prepare()} or {@link #preview()}.
+     */
+    public int getDiagramCount() {
+        return diagramCount;
+    }
+
+    /**
+     * Returns the number of class diagrams the last {@link #prepare()} transformed.
+     */
+    public int getTransformedCount() {
+        return metrics.getDiagrams().size();
+    }
+
+    /**
+     * Returns how many writes and deletes of the last run failed; their stack traces are in the log.
+     */
+    public long getErrorCount() {
+        return errors + metrics.getTotals().getErrors();
+    }
+
+    private void writeMetrics() {
+        try {
+            Path file = metrics.write(Paths.get(pathToDir));
+            log.log(LogLevel.SUMMARY, metrics.getSummary());
+            log.log(LogLevel.CLASS, "Metrics written to: " + file);
+        } catch (IOException e) {
+            logException(e);
+        }
+    }
+
+    private void logException(IOException e) {
+        errors++;
+        log.log(LogLevel.SUMMARY, TransformationLog.stackTrace(e));
+    }
+
+    /**
+     * Returns the association mapping rules of this run; rules registered before {@link #prepare()} apply to all diagrams.
+     */
+    public AssociationMappingTable getMappingTable() {
+        return mappings;
+    }
+
+    public AttributeCache getAttributeCache() {
+        return attributeCache;
+    }
+
+    /**
+     * Returns the association classes and generalizations found by the last {@link #prepare()} or {@link #preview()}.
+     */
+    public RelationshipIndex getRelationships() {
+        return relationships;
+    }
+
+    private void deleteAllFilesInDir(File directory, Metrics cleanup) {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        for (File file : files) {
+            if (file.isDirectory())
+                deleteAllFilesInDir(file, cleanup);
+            if (file.getName().lastIndexOf(".") != -1)
+                if (file.getName().substring(file.getName().lastIndexOf(".")).equals(".json"))
+                    if (file.delete())
+                        cleanup.fileDeleted(false);
+        }
+    }
+
+    private void getAssoGeneClasses(ProjectSnapshot snapshot) {
+        log.log(LogLevel.CLASS, "--------------------------------------------------------------------------------------------------------------------------------------");
+        log.log(LogLevel.SUMMARY, "Finding association classes and generalizations in project");
+        boolean verbose = log.isEnabled(LogLevel.CLASS);
+        for (ModelClass iClass : snapshot.getClasses()) {
+            for (ModelAssociation association : iClass.getAssociationsAsClass()) {
+                relationships.addAssociationClass(association, iClass);
+                if (verbose)
+                    log.log(LogLevel.CLASS, "Association class - AssoClass: " + iClass.getName() + " AssoFrom: " + association.getFrom().getName() + " AssoTo: " + association.getTo().getName());
+            }
+            for (ModelClass iClassSub : iClass.getSubClasses()) {
+                if (verbose)
+                    log.log(LogLevel.CLASS, "Generalization - Class: " + iClass.getName() + " SubClass: " + iClassSub.getName());
+                relationships.addGeneralization(iClass, iClassSub);
+            }
+        }
+        for (ModelClass iClass : snapshot.getClasses()) {
+            classifyAssociations(iClass);
+            for (ModelClass iClassSub : relationships.getSubClasses(iClass))
+                classifyAssociations(iClassSub);
+        }
+    }
+
+    private void classifyAssociations(ModelClass iClass) {
+        for (ModelAssociationEnd associationEnd : iClass.getAssociationEnds())
+            relationships.classify(associationEnd);
+    }
+}
@@ -0,0 +1,70 @@
+package umltonosqlplugin.advisor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.model.memory.MemoryAssociation;
+import umltonosqlplugin.model.memory.MemoryClass;
+import umltonosqlplugin.model.memory.MemoryProject;
+import umltonosqlplugin.transformation.GoldenModels;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexAdvisorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void depthFollowsTheEmbeds() {
+        List<CollectionAdvice> advice = advise(GoldenModels.shop(false));
+        assertEquals(3, find(advice, "orderID").getDepth());
+        assertEquals(1, find(advice, "addressID_orderID").getDepth());
+        MemoryClass person = new MemoryClass("Person").addAttribute("name", "String", false);
+        MemoryClass country = new MemoryClass("Country").addAttribute("code", "String", false);
+        MemoryAssociation.associate(person, "None", "*", country, "None", "1");
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("People").addClass(person).addClass(country);
+        advice = advise(project);
+        assertEquals(2, find(advice, "personID").getDepth());
+        assertEquals(3, find(advice, "countryID").getDepth());
+    }
+
+    @Test
+    void namesAreQuotedInTheReport() throws IOException {
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("Say \"hi\"").addClass(new MemoryClass("Note").addAttribute("text", "String", false));
+        Path file = new IndexAdvisor(null, null).write(dir, advise(project));
+        String report = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertTrue(report.contains("\"diagram\": \"Say \\\"hi\\\"\""), report);
+        assertTrue(report.contains("\"partOf\": null"), report);
+    }
+
+    private List<CollectionAdvice> advise(MemoryProject project) {
+        TransformationLog log = new TransformationLog(text -> {
+        }, LogLevel.SUMMARY);
+        try {
+            ProjectTransformation transformation = new ProjectTransformation(project, dir.toString(), false, log);
+            return new IndexAdvisor(transformation.getAttributeCache(), transformation.getRelationships()).advise(transformation.preview());
+        } finally {
+            log.close();
+        }
+    }
+
+    private static CollectionAdvice find(List<CollectionAdvice> advice, String name) {
+        for (CollectionAdvice collection : advice) {
+            if (collection.getName().equals(name))
+                return collection;
+        }
+        fail("no collection " + name);
+        return null;
+    }
+}
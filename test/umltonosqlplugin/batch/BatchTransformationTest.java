@@ -0,0 +1,97 @@
+package umltonosqlplugin.batch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTransformationTest {
+
+    private static final String ORDER = "{"
+            + "\n\t\"lines\": ["
+            + "\n\t\t{"
+            + "\n\t\t\t\"line\": \"lineID_orderID\","
+            + "\n\t\t\t\"quantity\": \"someNumber\""
+            + "\n\t\t}"
+            + "\n\t],"
+            + "\n\t\"customer\": {"
+            + "\n\t\t\"customer\": \"customerID\","
+            + "\n\t\t\"name\": \"someString\""
+            + "\n\t}"
+            + "\n}";
+
+    @TempDir
+    Path dir;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void compositionsAreNamedAfterTheDocumentFile() throws IOException {
+        Path file = copy("multiplicities.xmi", dir.resolve("in").resolve("shop.xmi"));
+        Path output = dir.resolve("out");
+        assertEquals(BatchTransformation.EXIT_SUCCESS, execute("--out", output.toString(), file.toString()));
+        Path diagram = output.resolve("shop").resolve("Shop");
+        assertEquals(ORDER, read(diagram.resolve("orderID.json")));
+        assertEquals("{\n\t\"quantity\": \"someNumber\"\n}", read(diagram.resolve("lineID_orderID.json")));
+        assertTrue(Files.exists(diagram.resolve("customerID.json")));
+    }
+
+    @Test
+    void filesOfTheSameNameGetNumberedFolders() throws IOException {
+        Path first = copy("multiplicities.xmi", dir.resolve("a").resolve("shop.xmi"));
+        Path second = copy("multiplicities.xmi", dir.resolve("b").resolve("shop.xmi"));
+        Path output = dir.resolve("out");
+        assertEquals(BatchTransformation.EXIT_SUCCESS, execute("--threads", "2", "--out", output.toString(), dir.toString()));
+        assertEquals(ORDER, read(output.resolve("shop").resolve("Shop").resolve("orderID.json")));
+        assertEquals(ORDER, read(output.resolve("shop-2").resolve("Shop").resolve("orderID.json")));
+        assertTrue(text(out).contains(first.toString()));
+        assertTrue(text(out).contains(second.toString()));
+    }
+
+    @Test
+    void unreadableFileFails() throws IOException {
+        Path file = dir.resolve("broken.xmi");
+        Files.write(file, "<xmi:XMI xmlns:xmi=\"http://www.omg.org/spec/XMI/20131001\"><unclosed>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(BatchTransformation.EXIT_FAILURE, execute("--out", dir.resolve("out").toString(), file.toString()));
+        assertTrue(text(out).contains("FAILED"));
+    }
+
+    @Test
+    void wrongArgumentsAreUsageErrors() {
+        assertEquals(BatchTransformation.EXIT_USAGE, execute("model.xmi"));
+        assertEquals(BatchTransformation.EXIT_USAGE, execute("--out", dir.toString()));
+        assertEquals(BatchTransformation.EXIT_USAGE, execute("--threads", "0", "--out", dir.toString(), "model.xmi"));
+        assertEquals(BatchTransformation.EXIT_USAGE, execute("--unknown", "--out", dir.toString(), "model.xmi"));
+        assertTrue(text(err).contains("Usage:"));
+    }
+
+    private int execute(String... args) {
+        return BatchTransformation.execute(args, new PrintStream(out, true), new PrintStream(err, true));
+    }
+
+    private static Path copy(String resource, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (InputStream in = BatchTransformationTest.class.getResourceAsStream("/umltonosqlplugin/model/xmi/" + resource)) {
+            assertNotNull(in, resource);
+            Files.copy(in, target);
+        }
+        return target;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteArrayOutputStream stream) {
+        return new String(stream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package umltonosqlplugin.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.transformation.GoldenModels;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkExporterTest {
+
+    private static final String BOOK = "{\"authors\":[{\"author\":\"authorID\",\"name\":\"someString\"}],\"title\":\"someString\","
+            + "\"chapters\":[{\"chapter\":\"chapterID_bookID\",\"pages\":\"someNumber\"}]}";
+    private static final String BOOK_OF_CHAPTERS = "{\"title\":\"someString\","
+            + "\"chapters\":[{\"chapter\":\"chapterID_bookID\",\"pages\":\"someNumber\"}]}";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void collectionsOfSameNamedDiagramsShareOneFile() throws IOException {
+        List<ExportedCollection> collections = export(EnumSet.allOf(ExportFormat.class));
+        ExportedCollection book = find(collections, "Library", "bookID");
+        assertEquals(2, book.getDocuments());
+        assertEquals(1, count(collections, "Library", "bookID"));
+        assertEquals(BOOK + "\n" + BOOK_OF_CHAPTERS + "\n", read(dir.resolve("Library").resolve("bookID.ndjson")));
+        assertEquals(2, bsonDocuments(dir.resolve("Library").resolve("bookID.bson")));
+        assertEquals(1, find(collections, "Readers", "bookID").getDocuments());
+    }
+
+    @Test
+    void repeatedExportReplacesTheFiles() throws IOException {
+        export(EnumSet.of(ExportFormat.NDJSON));
+        export(EnumSet.of(ExportFormat.NDJSON));
+        assertEquals(BOOK + "\n" + BOOK_OF_CHAPTERS + "\n", read(dir.resolve("Library").resolve("bookID.ndjson")));
+        assertTrue(Files.exists(dir.resolve(BulkExporter.MANIFEST)));
+    }
+
+    private List<ExportedCollection> export(EnumSet<ExportFormat> formats) throws IOException {
+        TransformationLog log = new TransformationLog(text -> {
+        }, LogLevel.SUMMARY);
+        try {
+            ProjectTransformation transformation = new ProjectTransformation(GoldenModels.sameNamedDiagrams(), dir.toString(), false, log);
+            return new BulkExporter(transformation.getAttributeCache(), formats).export(dir.toString(), transformation.preview());
+        } finally {
+            log.close();
+        }
+    }
+
+    private static ExportedCollection find(List<ExportedCollection> collections, String diagramName, String name) {
+        for (ExportedCollection collection : collections) {
+            if (collection.getDiagramName().equals(diagramName) && collection.getName().equals(name))
+                return collection;
+        }
+        fail("no collection " + diagramName + "/" + name);
+        return null;
+    }
+
+    private static int count(List<ExportedCollection> collections, String diagramName, String name) {
+        int count = 0;
+        for (ExportedCollection collection : collections) {
+            if (collection.getDiagramName().equals(diagramName) && collection.getName().equals(name))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the documents of a BSON file by following the length that starts every document.
+     */
+    private static int bsonDocuments(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int documents = 0;
+        for (int offset = 0; offset < bytes.length; documents++)
+            offset += (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+        return documents;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package umltonosqlplugin.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.transformation.GoldenModels;
+import umltonosqlplugin.transformation.ProjectTransformation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleDataGeneratorTest {
+
+    private static final int DOCUMENTS = 20;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void wholesReferenceDisjointParts() throws IOException {
+        generate(2, 3, 2);
+        Path shop = dir.resolve("Shop");
+        List<String> orders = lines(shop.resolve("orderID.ndjson"));
+        assertEquals(DOCUMENTS, orders.size());
+        assertEquals(DOCUMENTS * 3, lines(shop.resolve("lineID_orderID.ndjson")).size());
+        assertEquals(DOCUMENTS, lines(shop.resolve("addressID_orderID.ndjson")).size());
+        assertDisjoint(orders, "lineID_orderID", 2, DOCUMENTS * 3);
+        assertDisjoint(orders, "addressID_orderID", 1, DOCUMENTS);
+    }
+
+    @Test
+    void collectionsWithoutWholesKeepTheirSize() throws IOException {
+        generate(2, 3, 2);
+        assertEquals(DOCUMENTS, lines(dir.resolve("Shop").resolve("customerID.ndjson")).size());
+        assertEquals(DOCUMENTS, lines(dir.resolve("Shop").resolve("productID.ndjson")).size());
+    }
+
+    @Test
+    void outputDoesNotDependOnThreads() throws IOException {
+        generate(0, 4, 1);
+        String orders = read(dir.resolve("Shop").resolve("orderID.ndjson"));
+        String lines = read(dir.resolve("Shop").resolve("lineID_orderID.ndjson"));
+        generate(0, 4, 4);
+        assertEquals(orders, read(dir.resolve("Shop").resolve("orderID.ndjson")));
+        assertEquals(lines, read(dir.resolve("Shop").resolve("lineID_orderID.ndjson")));
+    }
+
+    /**
+     * Asserts that every document references at least {@code minimum} parts of {@code partCollection}, that the parts
+     * exist and that no part is referenced by two documents.
+     */
+    private static void assertDisjoint(List<String> wholes, String partCollection, int minimum, int parts) {
+        Pattern reference = Pattern.compile("\"" + partCollection + "-(\\d+)\"");
+        HashSet<Long> referenced = new HashSet<>();
+        for (String whole : wholes) {
+            Matcher matcher = reference.matcher(whole);
+            int count = 0;
+            while (matcher.find()) {
+                long part = Long.parseLong(matcher.group(1));
+                assertTrue(part < parts, whole);
+                assertTrue(referenced.add(part), "part " + part + " referenced twice");
+                count++;
+            }
+            assertTrue(count >= minimum, whole);
+        }
+    }
+
+    private void generate(int minFanOut, int maxFanOut, int threads) throws IOException {
+        TransformationLog log = new TransformationLog(text -> {
+        }, LogLevel.SUMMARY);
+        try {
+            ProjectTransformation transformation = new ProjectTransformation(GoldenModels.shop(false), dir.toString(), false, log);
+            new SampleDataGenerator(transformation.getAttributeCache())
+                    .documents(DOCUMENTS)
+                    .fanOut(minFanOut, maxFanOut)
+                    .threads(threads)
+                    .generate(dir.toString(), transformation.preview());
+        } finally {
+            log.close();
+        }
+    }
+
+    private static List<String> lines(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
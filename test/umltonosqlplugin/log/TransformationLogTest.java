@@ -0,0 +1,80 @@
+package umltonosqlplugin.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformationLogTest {
+
+    private static final int MESSAGES = 5000;
+    private static final int FLUSHERS = 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void batchesReachTheSinkInOrderAndOneAtATime() throws InterruptedException {
+        final List<String> shown = new ArrayList<>();
+        final AtomicInteger showing = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final AtomicBoolean logging = new AtomicBoolean(true);
+        final TransformationLog log = new TransformationLog(text -> {
+            if (showing.incrementAndGet() > 1)
+                overlaps.incrementAndGet();
+            Thread.yield();
+            shown.addAll(Arrays.asList(text.split("\n")));
+            showing.decrementAndGet();
+        }, LogLevel.TRACE);
+        Thread[] flushers = new Thread[FLUSHERS];
+        for (int i = 0; i < FLUSHERS; i++) {
+            flushers[i] = new Thread(() -> {
+                while (logging.get())
+                    log.flush();
+            });
+            flushers[i].start();
+        }
+        for (int i = 0; i < MESSAGES; i++)
+            log.log(LogLevel.SUMMARY, Integer.toString(i));
+        logging.set(false);
+        for (Thread flusher : flushers)
+            flusher.join();
+        log.close();
+        assertEquals(0, overlaps.get());
+        assertEquals(MESSAGES, shown.size());
+        for (int i = 0; i < MESSAGES; i++)
+            assertEquals(Integer.toString(i), shown.get(i));
+    }
+
+    @Test
+    void fileGetsEveryLevelAndTheSinkItsOwn() throws IOException {
+        final StringBuilder shown = new StringBuilder();
+        TransformationLog log = new TransformationLog(shown::append, LogLevel.SUMMARY);
+        log.openFile(dir);
+        log.log(LogLevel.SUMMARY, "summary");
+        log.log(LogLevel.TRACE, "trace");
+        log.close();
+        assertEquals("summary", shown.toString());
+        assertEquals(Arrays.asList("summary", "trace"), Files.readAllLines(dir.resolve(TransformationLog.LOG_FILE), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void overflowIsReportedAsDropped() {
+        final StringBuilder shown = new StringBuilder();
+        TransformationLog log = new TransformationLog(shown::append, LogLevel.SUMMARY);
+        for (int i = 0; i < TransformationLog.CAPACITY + 3; i++)
+            log.log(LogLevel.SUMMARY, Integer.toString(i));
+        log.close();
+        assertTrue(shown.toString().startsWith("... 3 earlier messages dropped\n3\n"));
+    }
+}
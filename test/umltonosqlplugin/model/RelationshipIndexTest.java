@@ -0,0 +1,129 @@
+package umltonosqlplugin.model;
+
+import org.junit.jupiter.api.Test;
+import umltonosqlplugin.model.memory.MemoryAssociation;
+import umltonosqlplugin.model.memory.MemoryClass;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelationshipIndexTest {
+
+    private static final int LOOKUPS = 500;
+
+    @Test
+    void lookupCostDoesNotGrowWithTheModel() {
+        Lookups small = new Lookups(1000);
+        Lookups large = new Lookups(50000);
+        long smallCalls = small.run();
+        long largeCalls = large.run();
+        assertEquals(small.found, large.found);
+        assertEquals(smallCalls, largeCalls);
+    }
+
+    @Test
+    void associationClassesOfAPairAndOfSelfAssociations() {
+        MemoryClass a = new MemoryClass("A");
+        MemoryClass b = new MemoryClass("B");
+        MemoryClass c = new MemoryClass("C");
+        MemoryClass ab = new MemoryClass("AB");
+        MemoryClass aa = new MemoryClass("AA");
+        MemoryClass ac = new MemoryClass("AC");
+        RelationshipIndex index = new RelationshipIndex();
+        MemoryAssociation self = MemoryAssociation.associate(a, "None", "*", a, "None", "*");
+        MemoryAssociation pair = MemoryAssociation.associate(b, "None", "*", a, "None", "*");
+        index.addAssociationClass(self, aa);
+        index.addAssociationClass(pair, ab);
+        index.addAssociationClass(MemoryAssociation.associate(a, "None", "*", c, "None", "*"), ac);
+        List<Map.Entry<ModelAssociation, ModelClass>> classes = index.getAssociationClasses("A", "B");
+        assertEquals(2, classes.size());
+        assertSame(aa, classes.get(0).getValue());
+        assertSame(ab, classes.get(1).getValue());
+        assertEquals(1, index.getAssociationClasses("A", "A").size());
+        assertTrue(index.isAssociationClass("AC"));
+        assertFalse(index.isAssociationClass("A"));
+    }
+
+    @Test
+    void subclassesPerSuperclass() {
+        MemoryClass payment = new MemoryClass("Payment");
+        MemoryClass card = new MemoryClass("Card");
+        MemoryClass transfer = new MemoryClass("Transfer");
+        RelationshipIndex index = new RelationshipIndex();
+        index.addGeneralization(payment, card);
+        index.addGeneralization(payment, transfer);
+        index.addGeneralization(payment, card);
+        assertEquals(2, index.getSubClasses(payment).size());
+        assertTrue(index.getSubClasses(card).isEmpty());
+        assertTrue(index.isSubClass("Card"));
+        assertFalse(index.isSubClass("Payment"));
+    }
+
+    /**
+     * A project of {@code size} classes, every tenth pair linked by an association with an association class and
+     * every fifth class a subclass of the one before it. The model is only reached through proxies that count calls,
+     * so a lookup that scans the relationships of the project shows up as calls growing with its size.
+     */
+    private static class Lookups {
+
+        private final long[] calls = new long[1];
+        private final RelationshipIndex index = new RelationshipIndex();
+        private final ArrayList<ModelClass> classes = new ArrayList<>();
+        private final ArrayList<ModelAssociationEnd> ends = new ArrayList<>();
+        private int found;
+
+        private Lookups(int size) {
+            ArrayList<MemoryClass> memoryClasses = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                memoryClasses.add(new MemoryClass("Class" + i));
+                classes.add(counted(ModelClass.class, memoryClasses.get(i)));
+            }
+            for (int i = 0; i + 1 < size; i += 10) {
+                MemoryAssociation association = MemoryAssociation.associate(memoryClasses.get(i), "None", "*", memoryClasses.get(i + 1), "None", "*");
+                index.addAssociationClass(counted(ModelAssociation.class, association), counted(ModelClass.class, new MemoryClass("Link" + i)));
+                ends.add(counted(ModelAssociationEnd.class, association.getFromEnd()));
+            }
+            for (int i = 5; i < size; i += 5)
+                index.addGeneralization(classes.get(i - 1), classes.get(i));
+        }
+
+        /**
+         * Runs the lookups of the discovery and planning phases over the first classes and returns the calls they
+         * made into the model.
+         */
+        private long run() {
+            calls[0] = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                String name = "Class" + i;
+                found += index.getAssociationClasses(name, "Class" + (i + 1)).size();
+                found += index.isSubClass(name) ? 1 : 0;
+                found += index.isAssociationClass("Link" + i) ? 1 : 0;
+                found += index.getSubClasses(classes.get(i)).size();
+            }
+            for (int i = 0; i < LOOKUPS / 10; i++)
+                found += index.classify(ends.get(i)).getCode();
+            return calls[0];
+        }
+
+        private <T> T counted(Class<T> type, final Object target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().equals("equals") && method.getParameterCount() == 1)
+                    return proxy == args[0];
+                if (method.getName().equals("hashCode") && method.getParameterCount() == 0)
+                    return System.identityHashCode(proxy);
+                if (method.getDeclaringClass() != Object.class)
+                    calls[0]++;
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package umltonosqlplugin.model.xmi;
+
+import org.junit.jupiter.api.Test;
+import umltonosqlplugin.model.*;
+import umltonosqlplugin.model.memory.MemoryProject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmiModelReaderTest {
+
+    @Test
+    void missingBoundsAreOne() throws IOException {
+        MemoryProject project = read("multiplicities.xmi");
+        ModelAssociationEnd lines = end(project, "Line", "Order");
+        assertEquals("0..*", lines.getMultiplicity());
+        assertEquals("None", lines.getAggregationKind());
+        assertEquals("1", lines.getOppositeEnd().getMultiplicity());
+        assertEquals("Composited", lines.getOppositeEnd().getAggregationKind());
+        assertEquals(AssociationEndKind.COMPOSITE_ONE, AssociationEndKind.of(lines.getOppositeEnd().getAggregationKind(), lines.getOppositeEnd().getMultiplicity()));
+    }
+
+    @Test
+    void missingUpperBoundIsOne() throws IOException {
+        MemoryProject project = read("multiplicities.xmi");
+        ModelAssociationEnd customer = end(project, "Customer", "Order");
+        assertEquals("0..1", customer.getMultiplicity());
+        assertEquals("1..*", customer.getOppositeEnd().getMultiplicity());
+    }
+
+    @Test
+    void associationEndsAreNotAttributes() throws IOException {
+        MemoryProject project = read("multiplicities.xmi");
+        assertEquals(Arrays.asList("number"), names(classNamed(project, "Order").getAttributes()));
+        assertEquals(Arrays.asList("quantity"), names(classNamed(project, "Line").getAttributes()));
+    }
+
+    @Test
+    void associationClassKeepsItsEndsAndAttributes() throws IOException {
+        MemoryProject project = read("association-class.xmi");
+        ModelClass enrollment = classNamed(project, "Enrollment");
+        assertEquals(1, enrollment.getAssociationsAsClass().size());
+        ModelAssociation association = enrollment.getAssociationsAsClass().get(0);
+        assertEquals("Student", association.getFrom().getName());
+        assertEquals("Course", association.getTo().getName());
+        assertEquals(Arrays.asList("grade"), names(enrollment.getAttributes()));
+        ModelAssociationEnd student = end(project, "Student", "Course");
+        assertEquals("0..*", student.getMultiplicity());
+        assertEquals("0..*", student.getOppositeEnd().getMultiplicity());
+    }
+
+    @Test
+    void generalizationsInBothNotations() throws IOException {
+        MemoryProject project = read("generalization.xmi");
+        ArrayList<String> subClasses = new ArrayList<>();
+        for (ModelClass subClass : classNamed(project, "Payment").getSubClasses())
+            subClasses.add(subClass.getName());
+        assertEquals(Arrays.asList("Card", "Transfer"), subClasses);
+        assertTrue(classNamed(project, "Card").getSubClasses().isEmpty());
+    }
+
+    @Test
+    void attributeTypes() throws IOException {
+        MemoryProject project = read("types.xmi");
+        List<ModelAttribute> attributes = classNamed(project, "Invoice").getAttributes();
+        assertEquals(Arrays.asList("id", "total", "address", "status", "", "note"), names(attributes));
+        assertAttribute(attributes.get(0), "String", true, true);
+        assertAttribute(attributes.get(1), "Money", true, false);
+        assertAttribute(attributes.get(2), "Address", true, false);
+        assertAttribute(attributes.get(3), "Status", false, false);
+        assertAttribute(attributes.get(4), "date", true, false);
+        assertAttribute(attributes.get(5), "null", false, false);
+        ModelClass status = classNamed(project, "Status");
+        assertEquals(Arrays.asList("enumeration"), status.getStereotypes());
+        assertEquals(Arrays.asList("OPEN", "CLOSED"), status.getEnumerationLiterals());
+    }
+
+    @Test
+    void extensionsAreSkipped() throws IOException {
+        assertNull(findClass(read("types.xmi"), "Hidden"));
+    }
+
+    @Test
+    void documentWithoutDiagramsGetsOneClassDiagram() throws IOException {
+        MemoryProject project = read("types.xmi");
+        assertEquals(1, project.getDiagrams().size());
+        ModelDiagram diagram = project.getDiagrams().get(0);
+        assertEquals("Types", diagram.getName());
+        assertEquals(ModelDiagram.CLASS_DIAGRAM, diagram.getType());
+        assertEquals(Arrays.asList("Status", "Invoice"), classNames(diagram));
+    }
+
+    @Test
+    void diagramsShowTheClassesOfTheirShapes() throws IOException {
+        MemoryProject project = read("diagrams.xmi");
+        List<ModelDiagram> diagrams = project.getDiagrams();
+        assertEquals(3, diagrams.size());
+        assertEquals("Catalogue", diagrams.get(0).getName());
+        assertEquals(ModelDiagram.CLASS_DIAGRAM, diagrams.get(0).getType());
+        assertEquals(Arrays.asList("Book", "Author"), classNames(diagrams.get(0)));
+        assertEquals("Lending", diagrams.get(1).getName());
+        assertEquals("UseCaseDiagram", diagrams.get(1).getType());
+        assertEquals(Arrays.asList("Reader"), classNames(diagrams.get(1)));
+        assertEquals("Catalogue", diagrams.get(2).getName());
+        assertNotEquals(diagrams.get(0).getId(), diagrams.get(2).getId());
+        assertEquals(Arrays.asList("Book"), classNames(diagrams.get(2)));
+    }
+
+    @Test
+    void appliedStereotypes() throws IOException {
+        MemoryProject project = read("diagrams.xmi");
+        assertEquals(Arrays.asList("Entity"), classNamed(project, "Book").getStereotypes());
+        assertTrue(classNamed(project, "Author").getStereotypes().isEmpty());
+    }
+
+    @Test
+    void malformedDocumentFails() {
+        byte[] xml = "<xmi:XMI xmlns:xmi=\"http://www.omg.org/spec/XMI/20131001\"><unclosed>".getBytes();
+        assertThrows(IOException.class, () -> new XmiModelReader().read(new ByteArrayInputStream(xml), "broken"));
+    }
+
+    static MemoryProject read(String resource) throws IOException {
+        try (InputStream in = XmiModelReaderTest.class.getResourceAsStream(resource)) {
+            assertNotNull(in, resource);
+            return new XmiModelReader().read(in, resource);
+        }
+    }
+
+    private static ModelClass findClass(ModelProject project, String name) {
+        for (ModelDiagram diagram : project.getDiagrams()) {
+            for (ModelClass modelClass : diagram.getClasses()) {
+                if (modelClass.getName().equals(name))
+                    return modelClass;
+                for (ModelAssociationEnd end : modelClass.getAssociationEnds()) {
+                    if (end.getOppositeEnd().getModelClass().getName().equals(name))
+                        return end.getOppositeEnd().getModelClass();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static ModelClass classNamed(ModelProject project, String name) {
+        ModelClass modelClass = findClass(project, name);
+        assertNotNull(modelClass, name);
+        return modelClass;
+    }
+
+    /**
+     * Returns the association end of {@code from} whose opposite end is {@code to}.
+     */
+    private static ModelAssociationEnd end(ModelProject project, String from, String to) {
+        for (ModelAssociationEnd end : classNamed(project, from).getAssociationEnds()) {
+            if (end.getOppositeEnd().getModelClass().getName().equals(to))
+                return end;
+        }
+        fail("no association from " + from + " to " + to);
+        return null;
+    }
+
+    private static void assertAttribute(ModelAttribute attribute, String typeName, boolean dataType, boolean id) {
+        assertEquals(typeName, attribute.getTypeName(), attribute.getName());
+        assertEquals(dataType, attribute.isDataType(), attribute.getName());
+        assertEquals(id, attribute.isID(), attribute.getName());
+    }
+
+    private static List<String> names(List<ModelAttribute> attributes) {
+        ArrayList<String> names = new ArrayList<>();
+        for (ModelAttribute attribute : attributes)
+            names.add(attribute.getName());
+        return names;
+    }
+
+    private static List<String> classNames(ModelDiagram diagram) {
+        ArrayList<String> names = new ArrayList<>();
+        for (ModelClass modelClass : diagram.getClasses())
+            names.add(modelClass.getName());
+        return names;
+    }
+}
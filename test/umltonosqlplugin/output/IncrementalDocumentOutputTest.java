@@ -0,0 +1,141 @@
+package umltonosqlplugin.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IncrementalDocumentOutputTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(1000000000000L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void commitWritesEveryDocumentAndItsManifest() throws IOException {
+        IncrementalDocumentOutput output = new IncrementalDocumentOutput();
+        output.create(dir.resolve("A/aID.json"), "{");
+        output.append(dir.resolve("A/aID.json"), "}");
+        output.create(dir.resolve("B/bID.json"), "[]");
+        Metrics metrics = commit(output, true);
+        assertEquals("{}", read(dir.resolve("A/aID.json")));
+        assertEquals("[]", read(dir.resolve("B/bID.json")));
+        assertTrue(Files.isRegularFile(dir.resolve("A").resolve(IncrementalDocumentOutput.MANIFEST)));
+        assertEquals(2, output.getWritten());
+        assertEquals(2, metrics.getFilesCreated());
+        assertEquals(4, metrics.getBytesWritten());
+    }
+
+    @Test
+    void unchangedDocumentsAreSkipped() throws IOException {
+        IncrementalDocumentOutput first = new IncrementalDocumentOutput();
+        first.create(dir.resolve("A/aID.json"), "{}");
+        first.create(dir.resolve("A/bID.json"), "{}");
+        commit(first, true);
+        Files.setLastModifiedTime(dir.resolve("A/aID.json"), OLD);
+        Files.setLastModifiedTime(dir.resolve("A/bID.json"), OLD);
+        IncrementalDocumentOutput second = new IncrementalDocumentOutput();
+        second.create(dir.resolve("A/aID.json"), "{}");
+        second.create(dir.resolve("A/bID.json"), "{\"b\": 1}");
+        Metrics metrics = commit(second, true);
+        assertEquals(OLD, Files.getLastModifiedTime(dir.resolve("A/aID.json")));
+        assertEquals("{\"b\": 1}", read(dir.resolve("A/bID.json")));
+        assertEquals(1, second.getSkipped());
+        assertEquals(1, second.getWritten());
+        assertEquals(1, metrics.getFilesCreated());
+    }
+
+    @Test
+    void fileNamesWithControlCharactersAreSkippedWhenUnchanged() throws IOException {
+        Path file;
+        try {
+            file = dir.resolve("A").resolve("line\nbreak\t\u0001\"quoted\\\".json");
+        } catch (InvalidPathException e) {
+            file = null;
+        }
+        assumeTrue(file != null, "file names with control characters are not supported here");
+        IncrementalDocumentOutput first = new IncrementalDocumentOutput();
+        first.create(file, "{}");
+        commit(first, true);
+        Files.setLastModifiedTime(file, OLD);
+        IncrementalDocumentOutput second = new IncrementalDocumentOutput();
+        second.create(file, "{}");
+        commit(second, true);
+        assertEquals(1, second.getSkipped());
+        assertEquals(OLD, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    void documentsNoLongerGeneratedAreDeleted() throws IOException {
+        IncrementalDocumentOutput first = new IncrementalDocumentOutput();
+        first.create(dir.resolve("A/aID.json"), "{}");
+        first.create(dir.resolve("A/bID.json"), "{}");
+        commit(first, false);
+        IncrementalDocumentOutput second = new IncrementalDocumentOutput();
+        second.create(dir.resolve("A/aID.json"), "{}");
+        Metrics metrics = commit(second, false);
+        assertTrue(Files.exists(dir.resolve("A/aID.json")));
+        assertFalse(Files.exists(dir.resolve("A/bID.json")));
+        assertEquals(1, second.getDeleted());
+        assertEquals(1, metrics.getFilesDeleted());
+    }
+
+    @Test
+    void wholeProjectCommitDeletesEveryOtherDocument() throws IOException {
+        IncrementalDocumentOutput first = new IncrementalDocumentOutput();
+        first.create(dir.resolve("Removed/rID.json"), "{}");
+        commit(first, true);
+        Files.createDirectories(dir.resolve("Unmanaged"));
+        Files.write(dir.resolve("Unmanaged/uID.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("Unmanaged/notes.txt"), "kept".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(dir.resolve("A"));
+        Files.write(dir.resolve("A/strayID.json"), "{}".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve(RunMetrics.FILE), "{}".getBytes(StandardCharsets.UTF_8));
+        IncrementalDocumentOutput second = new IncrementalDocumentOutput();
+        second.create(dir.resolve("A/aID.json"), "{}");
+        Metrics metrics = commit(second, true);
+        assertTrue(Files.exists(dir.resolve("A/aID.json")));
+        assertTrue(Files.exists(dir.resolve("A").resolve(IncrementalDocumentOutput.MANIFEST)));
+        assertFalse(Files.exists(dir.resolve("A/strayID.json")));
+        assertFalse(Files.exists(dir.resolve("Removed")));
+        assertFalse(Files.exists(dir.resolve("Unmanaged/uID.json")));
+        assertTrue(Files.exists(dir.resolve("Unmanaged/notes.txt")));
+        assertTrue(Files.exists(dir.resolve(RunMetrics.FILE)));
+        assertEquals(3, second.getDeleted());
+        assertEquals(3, metrics.getFilesDeleted());
+    }
+
+    @Test
+    void commitOfSomeDiagramsKeepsTheOthers() throws IOException {
+        IncrementalDocumentOutput first = new IncrementalDocumentOutput();
+        first.create(dir.resolve("A/aID.json"), "{}");
+        first.create(dir.resolve("B/bID.json"), "{}");
+        commit(first, true);
+        IncrementalDocumentOutput second = new IncrementalDocumentOutput();
+        second.create(dir.resolve("A/aID.json"), "{}");
+        commit(second, false);
+        assertTrue(Files.exists(dir.resolve("B/bID.json")));
+        assertEquals(0, second.getDeleted());
+    }
+
+    private Metrics commit(IncrementalDocumentOutput output, boolean wholeProject) throws IOException {
+        Metrics metrics = new Metrics("commit");
+        output.commit(dir, wholeProject, metrics);
+        return metrics;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
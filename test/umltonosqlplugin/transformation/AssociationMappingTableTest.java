@@ -0,0 +1,42 @@
+package umltonosqlplugin.transformation;
+
+import org.junit.jupiter.api.Test;
+import umltonosqlplugin.model.AssociationClassification;
+import umltonosqlplugin.model.AssociationEndKind;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssociationMappingTableTest {
+
+    private final AssociationMappingTable table = AssociationMappingTable.defaultTable();
+
+    @Test
+    void everyPairWithANonCompositeEndIsMapped() {
+        for (AssociationEndKind from : AssociationEndKind.values()) {
+            for (AssociationEndKind to : AssociationEndKind.values()) {
+                if (from != AssociationEndKind.UNMAPPED && to != AssociationEndKind.UNMAPPED && (!isComposite(from) || !isComposite(to)))
+                    assertNotNull(get(from, to), from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void compositeToCompositeIsNotMapped() {
+        assertNull(get(AssociationEndKind.COMPOSITE_ONE, AssociationEndKind.COMPOSITE_MANY));
+        assertNull(get(AssociationEndKind.COMPOSITE_MANY, AssociationEndKind.COMPOSITE_ONE));
+    }
+
+    @Test
+    void unmappedEndsAreNotMapped() {
+        assertNull(get(AssociationEndKind.UNMAPPED, AssociationEndKind.MANY));
+        assertNull(get(AssociationEndKind.MANY, AssociationEndKind.UNMAPPED));
+    }
+
+    private static boolean isComposite(AssociationEndKind kind) {
+        return kind == AssociationEndKind.COMPOSITE_ONE || kind == AssociationEndKind.COMPOSITE_MANY;
+    }
+
+    private AssociationMapping get(AssociationEndKind from, AssociationEndKind to) {
+        return table.get(new AssociationClassification(from, to));
+    }
+}
@@ -0,0 +1,195 @@
+package umltonosqlplugin.transformation;
+
+import umltonosqlplugin.model.memory.MemoryAssociation;
+import umltonosqlplugin.model.memory.MemoryClass;
+import umltonosqlplugin.model.memory.MemoryDiagram;
+import umltonosqlplugin.model.memory.MemoryProject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Projects whose generated documents are kept under {@code golden/<name>/}, as the transformation wrote them before
+ * it was restructured.
+ */
+public final class GoldenModels {
+
+    private GoldenModels() {
+    }
+
+    /**
+     * Returns the projects by the name of their folder under {@code golden/}.
+     */
+    public static Map<String, MemoryProject> all() {
+        LinkedHashMap<String, MemoryProject> projects = new LinkedHashMap<>();
+        projects.put("shop", shop(false));
+        projects.put("shop-edited", shop(true));
+        projects.put("subclasses", subclasses());
+        projects.put("same-named-diagrams", sameNamedDiagrams());
+        projects.put("self-associations", selfAssociations());
+        projects.put("association-classes", associationClasses());
+        projects.put("association-class-pairs", associationClassPairs());
+        return projects;
+    }
+
+    /**
+     * Customers, orders composed of lines, a one-to-one composited address and an enumeration. When {@code edited},
+     * the enumeration is left off the diagram and a line attribute is renamed, as an edit between two incremental
+     * runs.
+     */
+    public static MemoryProject shop(boolean edited) {
+        MemoryClass customer = new MemoryClass("Customer")
+                .addIdAttribute("id", "String", false)
+                .addAttribute("name", "String", false)
+                .addAttribute("registered", "Date", false);
+        MemoryClass order = new MemoryClass("Order")
+                .addIdAttribute("number", "int", true)
+                .addAttribute("placed", "DateTime", false)
+                .addAttribute("status", "Status", false);
+        MemoryClass line = new MemoryClass("Line")
+                .addAttribute(edited ? "amount" : "quantity", "int", true)
+                .addAttribute("gender", "String", false);
+        MemoryClass product = new MemoryClass("Product")
+                .addAttribute("name", "String", true)
+                .addAttribute("agreed", "boolean", true);
+        MemoryClass address = new MemoryClass("Address")
+                .addAttribute("street", "String", false);
+        MemoryClass status = new MemoryClass("Status")
+                .addStereotype("enumeration")
+                .addEnumerationLiteral("NEW")
+                .addEnumerationLiteral("PAID");
+        MemoryAssociation.associate(customer, "None", "1", order, "None", "*");
+        MemoryAssociation.associate(order, "Composited", "1", line, "None", "*");
+        MemoryAssociation.associate(order, "Composited", "1", address, "None", "1");
+        MemoryAssociation.associate(line, "None", "*", product, "Shared", "1");
+        MemoryProject project = new MemoryProject();
+        MemoryDiagram diagram = project.addDiagram("Shop")
+                .addClass(customer)
+                .addClass(order)
+                .addClass(line)
+                .addClass(address)
+                .addClass(product);
+        if (!edited)
+            diagram.addClass(status);
+        return project;
+    }
+
+    /**
+     * A superclass with two subclasses that are merged into it and dropped, one of them associated on its own.
+     */
+    public static MemoryProject subclasses() {
+        MemoryClass payment = new MemoryClass("Payment")
+                .addIdAttribute("id", "String", false)
+                .addAttribute("amount", "double", true);
+        MemoryClass card = new MemoryClass("Card")
+                .addAttribute("number", "String", false);
+        MemoryClass transfer = new MemoryClass("Transfer")
+                .addAttribute("iban", "String", false)
+                .addAttribute("when", "Date", false);
+        MemoryClass bank = new MemoryClass("Bank")
+                .addAttribute("name", "String", false);
+        MemoryClass invoice = new MemoryClass("Invoice")
+                .addAttribute("total", "double", true);
+        payment.addSubClass(card).addSubClass(transfer);
+        MemoryAssociation.associate(invoice, "None", "1", payment, "None", "*");
+        MemoryAssociation.associate(card, "None", "*", bank, "None", "1");
+        MemoryAssociation.associate(invoice, "Composited", "1", transfer, "None", "1");
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("Payments")
+                .addClass(payment)
+                .addClass(card)
+                .addClass(transfer)
+                .addClass(bank)
+                .addClass(invoice);
+        return project;
+    }
+
+    /**
+     * Two class diagrams of the same name sharing a class, a use case diagram of that name and a further diagram
+     * showing a class of the first one again.
+     */
+    public static MemoryProject sameNamedDiagrams() {
+        MemoryClass author = new MemoryClass("Author")
+                .addAttribute("name", "String", false);
+        MemoryClass book = new MemoryClass("Book")
+                .addIdAttribute("isbn", "String", false)
+                .addAttribute("title", "String", false);
+        MemoryClass chapter = new MemoryClass("Chapter")
+                .addAttribute("pages", "int", true);
+        MemoryClass reader = new MemoryClass("Reader")
+                .addAttribute("flag", "boolean", true);
+        MemoryAssociation.associate(author, "None", "*", book, "None", "*");
+        MemoryAssociation.associate(book, "Composited", "1", chapter, "None", "*");
+        MemoryAssociation.associate(reader, "None", "*", book, "None", "1");
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("Library").addClass(author).addClass(book);
+        project.addDiagram("Library").addClass(book).addClass(chapter);
+        project.addDiagram("Library", "UseCaseDiagram").addClass(reader);
+        project.addDiagram("Readers").addClass(reader).addClass(book).addClass(book);
+        return project;
+    }
+
+    /**
+     * Classes associated with themselves: a many-to-one manager, a composited tree and a many-to-many link.
+     */
+    public static MemoryProject selfAssociations() {
+        MemoryClass employee = new MemoryClass("Employee")
+                .addAttribute("name", "String", false);
+        MemoryClass category = new MemoryClass("Category")
+                .addAttribute("title", "String", false);
+        MemoryClass page = new MemoryClass("Page")
+                .addAttribute("url", "String", false);
+        MemoryAssociation.associate(employee, "None", "*", employee, "None", "1");
+        MemoryAssociation.associate(category, "Composited", "1", category, "None", "*");
+        MemoryAssociation.associate(page, "None", "*", page, "None", "*");
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("Self").addClass(employee).addClass(category).addClass(page);
+        return project;
+    }
+
+    /**
+     * Association classes on a many-to-many and a one-to-many association, one of them not on the diagram.
+     */
+    public static MemoryProject associationClasses() {
+        MemoryClass student = new MemoryClass("Student")
+                .addAttribute("name", "String", false);
+        MemoryClass course = new MemoryClass("Course")
+                .addAttribute("title", "String", false);
+        MemoryClass enrollment = new MemoryClass("Enrollment")
+                .addAttribute("grade", "int", true);
+        MemoryClass company = new MemoryClass("Company")
+                .addAttribute("name", "String", false);
+        MemoryClass employment = new MemoryClass("Employment")
+                .addAttribute("since", "Date", false);
+        enrollment.addAssociationAsClass(MemoryAssociation.associate(student, "None", "*", course, "None", "*"));
+        employment.addAssociationAsClass(MemoryAssociation.associate(company, "None", "1", student, "None", "*"));
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("School")
+                .addClass(student)
+                .addClass(course)
+                .addClass(enrollment)
+                .addClass(company);
+        return project;
+    }
+
+    /**
+     * A self many-to-many association with an association class, next to plain many-to-many associations of its
+     * class with other classes, which must not pick up the association class.
+     */
+    public static MemoryProject associationClassPairs() {
+        MemoryClass a = new MemoryClass("A")
+                .addAttribute("name", "String", false);
+        MemoryClass c = new MemoryClass("C")
+                .addAttribute("code", "String", false);
+        MemoryClass e = new MemoryClass("E")
+                .addAttribute("label", "String", false);
+        MemoryClass t = new MemoryClass("T")
+                .addAttribute("weight", "int", true);
+        t.addAssociationAsClass(MemoryAssociation.associate(c, "None", "*", c, "None", "*"));
+        MemoryAssociation.associate(a, "None", "*", c, "None", "*");
+        MemoryAssociation.associate(a, "None", "*", e, "None", "*");
+        MemoryProject project = new MemoryProject();
+        project.addDiagram("Pairs").addClass(a).addClass(c).addClass(e).addClass(t);
+        return project;
+    }
+}
@@ -0,0 +1,149 @@
+package umltonosqlplugin.transformation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import umltonosqlplugin.log.LogLevel;
+import umltonosqlplugin.log.TransformationLog;
+import umltonosqlplugin.metrics.Metrics;
+import umltonosqlplugin.metrics.RunMetrics;
+import umltonosqlplugin.model.ModelProject;
+import umltonosqlplugin.model.memory.MemoryProject;
+import umltonosqlplugin.output.IncrementalDocumentOutput;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the documents generated for the {@link GoldenModels} with the ones under {@code golden/}, which are the
+ * output of the plugin before the transformation was restructured, with compositions named after the document file.
+ */
+class GoldenOutputTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(1000000000000L);
+
+    @TempDir
+    Path dir;
+
+    static Set<String> models() {
+        return GoldenModels.all().keySet();
+    }
+
+    @ParameterizedTest
+    @MethodSource("models")
+    void fullRun(String name) throws Exception {
+        transform(GoldenModels.all().get(name), false);
+        assertGolden(name);
+    }
+
+    @ParameterizedTest
+    @MethodSource("models")
+    void incrementalRun(String name) throws Exception {
+        transform(GoldenModels.all().get(name), true);
+        assertGolden(name);
+    }
+
+    @ParameterizedTest
+    @MethodSource("models")
+    void repeatedFullRun(String name) throws Exception {
+        transform(GoldenModels.all().get(name), false);
+        transform(GoldenModels.all().get(name), false);
+        assertGolden(name);
+    }
+
+    @ParameterizedTest
+    @MethodSource("models")
+    void copiedProjectRun(String name) throws Exception {
+        transform(MemoryProject.copyOf(GoldenModels.all().get(name)), false);
+        assertGolden(name);
+    }
+
+    @Test
+    void incrementalRunSkipsUnchangedFilesAndDeletesStaleOnes() throws Exception {
+        transform(GoldenModels.shop(false), true);
+        Path diagram = dir.resolve("Shop");
+        for (Path file : files(dir))
+            Files.setLastModifiedTime(dir.resolve(file), OLD);
+        Metrics totals = transform(GoldenModels.shop(true), true).getTotals();
+        assertGolden("shop-edited");
+        assertEquals(3, totals.getFilesCreated());
+        assertEquals(1, totals.getFilesDeleted());
+        assertFalse(Files.exists(diagram.resolve("statusID.json")));
+        assertEquals(OLD, Files.getLastModifiedTime(diagram.resolve("customerID.json")));
+        assertEquals(OLD, Files.getLastModifiedTime(diagram.resolve("addressID_orderID.json")));
+        assertNotEquals(OLD, Files.getLastModifiedTime(diagram.resolve("lineID_orderID.json")));
+        assertNotEquals(OLD, Files.getLastModifiedTime(diagram.resolve("orderID.json")));
+    }
+
+    @Test
+    void unchangedIncrementalRunWritesNothing() throws Exception {
+        transform(GoldenModels.shop(false), true);
+        for (Path file : files(dir))
+            Files.setLastModifiedTime(dir.resolve(file), OLD);
+        Metrics totals = transform(GoldenModels.shop(false), true).getTotals();
+        assertGolden("shop");
+        assertEquals(0, totals.getFilesCreated());
+        assertEquals(0, totals.getBytesWritten());
+        for (Path file : files(dir)) {
+            if (file.getFileName().toString().endsWith("ID.json"))
+                assertEquals(OLD, Files.getLastModifiedTime(dir.resolve(file)), file.toString());
+        }
+    }
+
+    private RunMetrics transform(ModelProject project, boolean incremental) {
+        TransformationLog log = new TransformationLog(text -> {
+        }, LogLevel.SUMMARY);
+        try {
+            ProjectTransformation transformation = new ProjectTransformation(project, dir.toString(), incremental, log);
+            transformation.run();
+            assertEquals(0, transformation.getErrorCount());
+            return transformation.getMetrics();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Asserts that the output directory holds exactly the documents of {@code golden/<name>/}, besides the metrics
+     * and manifests.
+     */
+    private void assertGolden(String name) throws IOException, URISyntaxException {
+        Path golden = Paths.get(GoldenOutputTest.class.getResource("golden/" + name).toURI());
+        List<Path> expected = files(golden);
+        ArrayList<Path> actual = new ArrayList<>();
+        for (Path file : files(dir)) {
+            String fileName = file.getFileName().toString();
+            if (!fileName.equals(RunMetrics.FILE) && !fileName.equals(IncrementalDocumentOutput.MANIFEST))
+                actual.add(file);
+        }
+        assertEquals(expected, actual);
+        for (Path file : expected)
+            assertEquals(read(golden.resolve(file)), read(dir.resolve(file)), file.toString());
+    }
+
+    private static List<Path> files(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> files = walk.filter(Files::isRegularFile).map(root::relativize).collect(Collectors.toList());
+            Collections.sort(files);
+            return files;
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
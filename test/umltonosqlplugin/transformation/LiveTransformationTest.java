@@ -0,0 +1,110 @@
+package umltonosqlplugin.transformation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import umltonosqlplugin.model.ModelProject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveTransformationTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    @TempDir
+    Path dir;
+
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    void updatesTheOutput() throws Exception {
+        LiveTransformation live = new LiveTransformation(project(null, null), dir.toString(), 0, messages::add);
+        live.start();
+        awaitMessage("Live update:");
+        live.stop();
+        awaitMessage("Live mode stopped: 1 updates");
+        assertTrue(Files.exists(dir.resolve("Shop").resolve("orderID.json")));
+    }
+
+    @Test
+    void stopDoesNotWaitForARunningUpdate() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LiveTransformation live = new LiveTransformation(project(reading, release), dir.toString(), 0, messages::add);
+        live.start();
+        assertTrue(reading.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        long started = System.nanoTime();
+        live.stop();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+        assertFalse(live.isRunning());
+        assertFalse(contains("Live mode stopped"));
+        release.countDown();
+        awaitMessage("Live mode stopped: 0 updates");
+        assertTrue(contains("Live update cancelled"));
+        assertEquals(0, files());
+    }
+
+    @Test
+    void stopWhenIdleReportsAtOnce() {
+        LiveTransformation live = new LiveTransformation(project(null, null), dir.toString(), TIMEOUT_MILLIS, messages::add);
+        live.start();
+        live.stop();
+        assertTrue(last().startsWith("Live mode stopped: 0 updates"), last());
+    }
+
+    /**
+     * Returns the shop project; when given, the source counts down {@code reading} and then waits for
+     * {@code release}, as a slow model read would.
+     */
+    private static Callable<ModelProject> project(final CountDownLatch reading, final CountDownLatch release) {
+        return () -> {
+            if (reading != null) {
+                reading.countDown();
+                release.await();
+            }
+            return GoldenModels.shop(false);
+        };
+    }
+
+    private void awaitMessage(String prefix) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (!contains(prefix)) {
+            assertTrue(System.nanoTime() < deadline, "no message " + prefix + " in " + messages);
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean contains(String prefix) {
+        synchronized (messages) {
+            for (String message : messages) {
+                for (String line : message.split("\n")) {
+                    if (line.startsWith(prefix))
+                        return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private String last() {
+        synchronized (messages) {
+            return messages.isEmpty() ? "" : messages.get(messages.size() - 1);
+        }
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile).count();
+        }
+    }
+}